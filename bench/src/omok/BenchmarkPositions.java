@@ -0,0 +1,78 @@
+package omok;
+
+import java.util.Random;
+
+/**
+ * Reproducible benchmark positions. Stones are dropped in a fixed
+ * pseudo-random order around the centre, skipping any stone that would
+ * complete five in a row, so no fixture is already won.
+ */
+public final class BenchmarkPositions {
+    public static final String EMPTY = "empty";
+    public static final String MID_GAME = "midgame";
+    public static final String NEAR_FULL = "nearfull";
+
+    private BenchmarkPositions(){}
+
+    /**
+     * @param size width and height of the board
+     * @param fixture EMPTY, MID_GAME or NEAR_FULL
+     * @return a board with a quarter (MID_GAME) or nine tenths (NEAR_FULL) of the cells taken
+     */
+    public static Board create(int size, String fixture){
+        double fill;
+        switch (fixture){
+            case EMPTY:
+                fill = 0;
+                break;
+            case MID_GAME:
+                fill = 0.25;
+                break;
+            case NEAR_FULL:
+                fill = 0.9;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown fixture " + fixture);
+        }
+        Board board = new Board(size, size);
+        Random random = new Random(size * 31L + fixture.hashCode());
+        int target = (int) (size * size * fill);
+        int playerNum = 1;
+        int attempts = 0;
+        while (board.getStoneCount() < target && attempts++ < size * size * 100){
+            // Mid-game stones cluster around the centre, near-full ones go anywhere
+            int spread = fill < 0.5 ? Math.max(3, (int) (size * 0.6)) : size;
+            int x = size / 2 + 1 + (int) Math.round(random.nextGaussian() * spread / 3.0);
+            int y = size / 2 + 1 + (int) Math.round(random.nextGaussian() * spread / 3.0);
+            if (fill >= 0.5){
+                x = random.nextInt(size) + 1;
+                y = random.nextInt(size) + 1;
+            }
+            if (!board.placeStone(x, y, playerNum)){
+                continue;
+            }
+            if (board.isWinningStone(x, y)){
+                board.removeStone(x, y);
+                continue;
+            }
+            playerNum = 3 - playerNum;
+        }
+        return board;
+    }
+
+    /**
+     * The same position on a model.Board
+     */
+    public static model.Board createModel(int size, String fixture, model.Player[] players){
+        int[][] cells = create(size, fixture).getBoard();
+        model.Board board = new model.Board(size);
+        for (int i = 0; i < size; i++){
+            for (int j = 0; j < size; j++){
+                if (cells[i][j] != 0){
+                    board.placeStone(i, j, players[cells[i][j] - 1]);
+                }
+            }
+        }
+        return board;
+    }
+}
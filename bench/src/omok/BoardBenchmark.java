@@ -0,0 +1,80 @@
+package omok;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Board operations of both board implementations on empty, mid-game and
+ * near-full positions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+    @Param({"10", "15", "19", "50"})
+    public int size;
+
+    @Param({BenchmarkPositions.EMPTY, BenchmarkPositions.MID_GAME, BenchmarkPositions.NEAR_FULL})
+    public String fixture;
+
+    private Board board;
+    private model.Board modelBoard;
+    private model.Player[] players;
+    /** An empty cell to place on, 1-based for Board */
+    private int emptyX;
+    private int emptyY;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        players = new model.Player[] {new model.Player("one"), new model.Player("two")};
+        board = BenchmarkPositions.create(size, fixture);
+        modelBoard = BenchmarkPositions.createModel(size, fixture, players);
+        int[] moves = new int[size * size];
+        board.generateMoves(moves);
+        emptyX = moves[0] / size + 1;
+        emptyY = moves[0] % size + 1;
+    }
+
+    @Benchmark
+    public boolean checkWin(){
+        return board.checkWin(1);
+    }
+
+    @Benchmark
+    public boolean placeStone(){
+        board.placeStone(emptyX, emptyY, 1);
+        return board.removeStone(emptyX, emptyY);
+    }
+
+    @Benchmark
+    public boolean modelIsWonBy(){
+        return modelBoard.isWonBy(players[0]);
+    }
+
+    @Benchmark
+    public Iterable<model.Board.Place> modelWinningRow(){
+        return modelBoard.winningRow();
+    }
+
+    @Benchmark
+    public boolean modelPlaceStone(){
+        modelBoard.placeStone(emptyX - 1, emptyY - 1, players[0]);
+        modelBoard.placeStone(emptyX - 1, emptyY - 1, null);
+        return modelBoard.isOccupied(emptyX - 1, emptyY - 1);
+    }
+}
@@ -0,0 +1,69 @@
+package omok;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Move selection at a fixed search depth, so the time measured is the
+ * work done rather than the engine's time budget. The endgame solver is
+ * turned off: it ignores the depth limit, so the near-full fixtures would
+ * measure it instead of the search.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ComputerPlayerBenchmark {
+    @Param({"10", "15", "19", "50"})
+    public int size;
+
+    @Param({BenchmarkPositions.EMPTY, BenchmarkPositions.MID_GAME, BenchmarkPositions.NEAR_FULL})
+    public String fixture;
+
+    @Param({"2"})
+    public int depth;
+
+    private SearchEngine engine;
+    private ComputerPlayer computer;
+    private int[][] cells;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        cells = BenchmarkPositions.create(size, fixture).getBoard();
+        engine = new SearchEngine(TimeUnit.HOURS.toMillis(1), 1);
+        engine.setDepthLimit(depth);
+        engine.setEndgameThreshold(0);
+        computer = new ComputerPlayer(1, new SilentUserInterface(), engine);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable(){
+        // Otherwise every call after the first would be answered from the transposition table
+        engine.clearTable();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown(){
+        computer.shutdown();
+    }
+
+    @Benchmark
+    public int[] getStonePlacement(){
+        return computer.getStonePlacement(cells);
+    }
+}
@@ -0,0 +1,55 @@
+package omok;
+
+/**
+ * Measures how search speed scales with the number of threads.
+ * Prints nodes per second and the speedup over one thread for 1, 2, 4, ...
+ * threads up to the number of available processors.
+ * Usage: ParallelSearchBenchmark [millis per search] [board size] [max threads]
+ */
+public class ParallelSearchBenchmark {
+    /** Stones of a mid-game position on a 15x15 board, 1-based x, y, player */
+    private static final int[][] MID_GAME = {
+            {8, 8, 1}, {8, 9, 2}, {7, 9, 1}, {9, 7, 2}, {6, 10, 1}, {9, 9, 2},
+            {7, 8, 1}, {7, 7, 2}, {9, 8, 1}, {10, 8, 2}, {6, 8, 1}, {5, 8, 2}
+    };
+    /** Smallest board the position fits on, with no room left around it */
+    private static final int MIN_SIZE = 10;
+
+    public static void main(String[] args){
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 2000;
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : 15;
+        int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        if (size < MIN_SIZE){
+            throw new IllegalArgumentException("Board size must be at least " + MIN_SIZE + ", not " + size);
+        }
+
+        System.out.println("threads  nodes/s       speedup  depth");
+        double baseline = 0;
+        for (int threads = 1; threads <= maxThreads; threads *= 2){
+            SearchEngine engine = new SearchEngine(millis, 64, threads);
+            // Warm up the JIT before measuring, then forget what the warm-up stored
+            engine.search(midGame(size), 1);
+            engine.clearTable();
+            SearchResult result = engine.search(midGame(size), 1);
+            engine.shutdown();
+            double nodesPerSecond = result.getNodes() * 1000.0 / Math.max(1, result.getTimeMillis());
+            if (threads == 1){
+                baseline = nodesPerSecond;
+            }
+            System.out.printf("%-8d %-13.0f %-8.2f %d%n", threads, nodesPerSecond, nodesPerSecond / baseline, result.getDepth());
+            if (threads < maxThreads && threads * 2 > maxThreads){
+                threads = maxThreads / 2;
+            }
+        }
+    }
+
+    /** The position centred on boards of 15 and up, and at its 15x15 coordinates on smaller ones */
+    private static Board midGame(int size){
+        Board board = new Board(size, size);
+        int offset = Math.max(0, (size - 15) / 2);
+        for (int[] stone : MID_GAME){
+            board.placeStone(stone[0] + offset, stone[1] + offset, stone[2]);
+        }
+        return board;
+    }
+}
@@ -1,6 +0,0 @@
-public class Main {
-    public static void main(String[] args) {
-        GameController Game = new GameController(new UserInterface());
-        Game.start();
-    }
-}
\ No newline at end of file
@@ -1,8 +1,9 @@
 package model;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 
 
 /**
@@ -12,21 +13,45 @@ import java.util.Set;
  * denote the column and row number, respectively. The top-left
  * intersection is represented by the indices (0, 0), and the
  * bottom-right intersection is represented by the indices (n-1, n-1).
+ *
+ * The board stores one byte per intersection naming the player who
+ * owns it, so an empty board costs little more than n x n bytes.
+ * Place objects are only created when asked for, by board() or
+ * the winning row methods.
  */
 public class Board {
+    /** Horizontal, vertical and both diagonal line directions. */
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    /** Most players a board can tell apart, one per owner index. */
+    private static final int MAX_PLAYERS = Byte.MAX_VALUE;
+
     private int size = 10;
-    private Place[][] board;
+    /** Owner index of each intersection, by x * size + y; 0 is empty. */
+    private byte[] owners;
+    /** Players that have placed stones, by owner index; slot 0 is unused. */
+    private Player[] players = new Player[1];
+    /** Winning rows found so far, in the order they were completed.
+     * Maintained by placeStone, which only has to look at the four
+     * lines through the stone just placed. */
+    private final Map<Player, List<Place>> winningRows = new LinkedHashMap<>();
     /** Create a new board of the default size. */
     public Board() {
-        this.board = new Place[size][size];
-        clear();
+        this.owners = new byte[size * size];
     }
 
     /** Create a new board of the specified size. */
     public Board(int size) {
+        this(size, true);
+    }
+
+    /** Create a board of the specified size, leaving the places
+     * unallocated for subclasses that store them their own way. */
+    protected Board(int size, boolean allocate) {
         this.size = size;
-        this.board = new Place[size][size];
-        clear();
+        if(allocate){
+            this.owners = new byte[size * size];
+        }
     }
 
     /** Return the size of this board. */
@@ -34,29 +59,34 @@ public class Board {
         return this.size;
     }
 
-    /** Return the board. */
-    public Place[][] board(){return this.board;}
+    /** Return the board. The places are created for this call: they
+     * show the owners at the time of the call, and changing them does
+     * not change the board. */
+    public Place[][] board(){
+        Place[][] board = new Place[size][size];
+        for(int i = 0; i < size; i++){
+            for(int j = 0; j < size; j++){
+                board[i][j] = place(i, j);
+            }
+        }
+        return board;
+    }
 
     /** Removes all the stones placed on the board, effectively
      * resetting the board to its original state.
      */
     public void clear() {
-        for(int i = 0; i < size; i ++){
-            for (int j = 0; j < size; j ++){
-                board[i][j] = new Place(i, j);
-            }
-        }
+        Arrays.fill(owners, (byte) 0);
+        winningRows.clear();
     }
 
     /** Return a boolean value indicating whether all the places
      * on the board are occupied or not.
      */
     public boolean isFull() {
-        for(Place[] row: board){
-            for(Place place: row){
-                if(!place.isOccupied()){
-                    return false;
-                }
+        for(byte owner: owners){
+            if(owner == 0){
+                return false;
             }
         }
         return true;
@@ -71,7 +101,18 @@ public class Board {
      * @param player Player whose stone is to be placed
      */
     public void placeStone(int x, int y, Player player) {
-        board[x][y].owner = player;
+        int index = index(x, y);
+        Player previous = players[owners[index]];
+        owners[index] = ownerIndex(player);
+        if(previous != null && previous != player && winningRows.containsKey(previous)){
+            rescan();
+        }
+        else if(player != null && !winningRows.containsKey(player)){
+            List<Place> row = rowThrough(x, y, player);
+            if(row != null){
+                winningRows.put(player, row);
+            }
+        }
     }
 
     /**
@@ -82,7 +123,7 @@ public class Board {
      * @param y 0-based row (horizontal) index
      */
     public boolean isEmpty(int x, int y) {
-        return !board[x][y].isOccupied();
+        return owners[index(x, y)] == 0;
     }
 
     /**
@@ -92,7 +133,7 @@ public class Board {
      * @param y 0-based row (horizontal) index
      */
     public boolean isOccupied(int x, int y) {
-        return board[x][y].isOccupied();
+        return owners[index(x, y)] != 0;
     }
 
     /**
@@ -104,7 +145,7 @@ public class Board {
      * @param y 0-based row (horizontal) index
      */
     public boolean isOccupiedBy(int x, int y, Player player) {
-        return board[x][y].owner == player;
+        return playerAt(x, y) == player;
     }
 
     /**
@@ -115,7 +156,7 @@ public class Board {
      * @param y 0-based row (horizontal) index
      */
     public Player playerAt(int x, int y) {
-        return board[x][y].owner;
+        return players[owners[index(x, y)]];
     }
 
     /**
@@ -125,226 +166,133 @@ public class Board {
      * a horizontal, vertical, or diagonal direction.
      */
     public boolean isWonBy(Player player) {
-        int count = 0;
-        //Check for horizontal lines
-        for(Place[] row: board){
-            count = 0;
-            for(Place place: row){
-                if(place.owner == player){
-                    count ++;
-                }
-                else{
-                    count = 0;
-                }
-                if(count == 5){
-                    return true;
-                }
-            }
-        }
-        //Check for vertical lines
-        for(int i = 0; i < board.length; i++){
-            count = 0;
-            for(int j = 0; j < board[0].length; j++){
-                if(board[j][i].owner == player){
-                    count ++;
-                }
-                else{
-                    count = 0;
-                }
-                if(count == 5){
-                    return true;
-                }
-            }
-        }
-        //Check for diagonals going right starting on the left
-        for(int i = 0; i < board.length; i++){
-            count = 0;
-            int j = 0;
-            for(int tempi = i; tempi >= 0; tempi--){
-                if(board[tempi][j].owner == player){
-                    count ++;
-                }
-                else{
-                    count = 0;
-                }
-                if(count == 5){
-                    return true;
-                }
-                j++;
-            }
-        }
-        //Check for diagonals going right starting on the bottom
-        for(int j = 0; j < board[0].length; j++){
-            count = 0;
-            int i = board.length - 1;
-            for(int tempj = j; tempj < board[0].length; tempj++){
-                if(board[i][tempj].owner == player){
-                    count ++;
-                }
-                else{
-                    count = 0;
-                }
-                if(count == 5){
-                    return true;
-                }
-                i --;
-            }
-        }
-        //Check for diagonals going left starting on the right
-        for(int i = 0; i < board.length; i++){
-            count = 0;
-            int j = board[0].length - 1;
-            for(int tempi = i; tempi >= 0; tempi--){
-                if(board[tempi][j].owner == player){
-                    count ++;
-                }
-                else{
-                    count = 0;
-                }
-                if(count == 5){
-                    return true;
-                }
-                j--;
-            }
-        }
-        //Check for diagonals going left starting on the bottom
-        for(int j = board[0].length - 1; j >= 0; j--){
-            count = 0;
-            int i = board.length - 1;
-            for(int tempj = j; tempj >= 0; tempj--){
-                if(board[i][tempj].owner == player){
-                    count ++;
-                }
-                else{
-                    count = 0;
-                }
-                if(count == 5){
-                    return true;
-                }
-                i --;
-            }
-        }
-        return false;
+        return winningRows.containsKey(player);
     }
     /** Return the winning row. For those who are not familiar with
      * the Iterable interface, you may return an object of
      * List<Place>. */
     public Iterable<Place> winningRow() {
-        Set<Player> set = new HashSet<>();
-        for(Place[] row: board){
-            for(Place place: row){
-                if(!set.contains(place.owner) && place.owner != null){
-                    Iterable<Place> winningRow = realWinningRow(place.owner);
-                    if (winningRow != null){
-                        return winningRow;
-                    }
-                    set.add(place.owner);
-                }
-            }
+        for(List<Place> row: winningRows.values()){
+            return row;
         }
         return null;
     }
     public Iterable<Place> realWinningRow(Player player) {
-        ArrayList<Place> places;
-        //Check for horizontal lines
-        for(Place[] row: board){
-            places = new ArrayList<>();
-            for(Place place: row){
-                if(place.owner == player){
-                    places.add(place);
-                }
-                else{
-                    places = new ArrayList<>();
-                }
-                if(places.size() == 5){
-                    return places;
+        return winningRows.get(player);
+    }
+
+    /**
+     * Return the empty places within the given distance (in rows or
+     * columns) of at least one stone, in no particular order. These
+     * are the places worth considering for the next move.
+     *
+     * @param distance how far from a stone a place may be
+     */
+    public List<Place> neighbors(int distance) {
+        boolean[] seen = new boolean[size * size];
+        List<Place> places = new ArrayList<>();
+        for(int i = 0; i < size; i++){
+            for(int j = 0; j < size; j++){
+                if(owners[i * size + j] == 0){
+                    continue;
+                }
+                for(int x = Math.max(0, i - distance); x <= Math.min(size - 1, i + distance); x++){
+                    for(int y = Math.max(0, j - distance); y <= Math.min(size - 1, j + distance); y++){
+                        if(!seen[x * size + y] && owners[x * size + y] == 0){
+                            seen[x * size + y] = true;
+                            places.add(new Place(x, y));
+                        }
+                    }
                 }
             }
         }
-        //Check for vertical lines
-        for(int i = 0; i < board.length; i++){
-            places = new ArrayList<>();
-            for(int j = 0; j < board[0].length; j++){
-                if(board[j][i].owner == player){
-                    places.add(board[j][i]);
-                }
-                else{
-                    places = new ArrayList<>();
-                }
-                if(places.size() == 5){
-                    return places;
-                }
+        return places;
+    }
+
+    /**
+     * Return the first five places of the run of the given player's
+     * stones passing through (x, y), or null if no run through that
+     * intersection is five or more stones long.
+     */
+    private List<Place> rowThrough(int x, int y, Player player) {
+        for(int[] direction: DIRECTIONS){
+            int dx = direction[0];
+            int dy = direction[1];
+            int startX = x;
+            int startY = y;
+            while(inBounds(startX - dx, startY - dy) && players[owners[(startX - dx) * size + startY - dy]] == player){
+                startX -= dx;
+                startY -= dy;
             }
-        }
-        //Check for diagonals going right starting on the left
-        for(int i = 0; i < board.length; i++){
-            places = new ArrayList<>();
-            int j = 0;
-            for(int tempi = i; tempi >= 0; tempi--){
-                if(board[tempi][j].owner == player){
-                    places.add(board[tempi][j]);
-                }
-                else{
-                    places = new ArrayList<>();
-                }
-                if(places.size() == 5){
-                    return places;
-                }
-                j++;
+            List<Place> places = new ArrayList<>(5);
+            int i = startX;
+            int j = startY;
+            while(places.size() < 5 && inBounds(i, j) && players[owners[i * size + j]] == player){
+                places.add(place(i, j));
+                i += dx;
+                j += dy;
             }
-        }
-        //Check for diagonals going right starting on the bottom
-        for(int j = 0; j < board[0].length; j++){
-            places = new ArrayList<>();
-            int i = board.length - 1;
-            for(int tempj = j; j < board[0].length; tempj++){
-                if(board[i][tempj].owner == player){
-                    places.add(board[i][tempj]);
-                }
-                else{
-                    places = new ArrayList<>();
-                }
-                if(places.size() == 5){
-                    return places;
-                }
-                i --;
+            if(places.size() == 5){
+                return places;
             }
         }
-        //Check for diagonals going left starting on the right
-        for(int i = 0; i < board.length; i++){
-            places = new ArrayList<>();
-            int j = board[0].length;
-            for(int tempi = i; tempi >= 0; tempi--){
-                if(board[tempi][j].owner == player){
-                    places.add(board[tempi][j]);
-                }
-                else{
-                    places = new ArrayList<>();
-                }
-                if(places.size() == 5){
-                    return places;
+        return null;
+    }
+
+    /** Rebuild the winning rows from scratch. Only needed when a
+     * stone that is part of a winning row gets overwritten. */
+    private void rescan() {
+        winningRows.clear();
+        for(int i = 0; i < size; i++){
+            for(int j = 0; j < size; j++){
+                Player owner = players[owners[i * size + j]];
+                if(owner != null && !winningRows.containsKey(owner)){
+                    List<Place> row = rowThrough(i, j, owner);
+                    if(row != null){
+                        winningRows.put(owner, row);
+                    }
                 }
-                j--;
             }
         }
-        //Check for diagonals going left starting on the bottom
-        for(int j = board[0].length; j >= 0; j--){
-            places = new ArrayList<>();
-            int i = board.length - 1;
-            for(int tempj = j; j >= 0; tempj--){
-                if(board[i][tempj].owner == player){
-                    places.add(board[i][tempj]);
-                }
-                else{
-                    places = new ArrayList<>();
-                }
-                if(places.size() == 5){
-                    return places;
-                }
-                i --;
+    }
+
+    private boolean inBounds(int x, int y) {
+        return x >= 0 && y >= 0 && x < size && y < size;
+    }
+
+    /** Return the position of (x, y) in owners, failing like an
+     * array access would if it is off the board. */
+    private int index(int x, int y) {
+        if(!inBounds(x, y)){
+            throw new ArrayIndexOutOfBoundsException("(" + x + ", " + y + ") is not on a board of size " + size);
+        }
+        return x * size + y;
+    }
+
+    /** Return the owner index of a player, giving it one the first
+     * time it places a stone on this board. */
+    private byte ownerIndex(Player player) {
+        if(player == null){
+            return 0;
+        }
+        for(int i = 1; i < players.length; i++){
+            if(players[i] == player){
+                return (byte) i;
             }
         }
-        return null;
+        if(players.length > MAX_PLAYERS){
+            throw new IllegalStateException("A board cannot hold stones of more than " + MAX_PLAYERS + " players");
+        }
+        players = Arrays.copyOf(players, players.length + 1);
+        players[players.length - 1] = player;
+        return (byte) (players.length - 1);
+    }
+
+    /** Return a new place for (x, y) showing its current owner. */
+    private Place place(int x, int y) {
+        Place place = new Place(x, y);
+        place.owner = players[owners[x * size + y]];
+        return place;
     }
     /**
      * An intersection on an Omok board identified by its 0-based column
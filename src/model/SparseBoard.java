@@ -0,0 +1,378 @@
+package model;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Omok board that only stores the places holding a stone, in an
+ * open-addressing hash table keyed by the packed (x, y) indices.
+ * Memory, win detection and neighbor queries grow with the number
+ * of stones rather than with the area of the board, which makes it
+ * suitable for very large boards. A board created without a size is
+ * unbounded: every pair of int indices, negative ones included, is
+ * a place on it.
+ *
+ * The board has no array of places; {@link #board()} builds one for
+ * the whole board, or for an unbounded board one covering only the
+ * smallest rectangle holding all the stones.
+ */
+public class SparseBoard extends Board {
+    /** Size reported by an unbounded board. */
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    /** Horizontal, vertical and both diagonal line directions. */
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final int size;
+    /** Packed indices of the occupied places, see {@link #key}. */
+    private long[] keys;
+    /** Owner of the place in the same slot of keys, null for a free slot. */
+    private Player[] owners;
+    private int count;
+    /** Winning rows found so far, in the order they were completed. */
+    private final Map<Player, List<Place>> winningRows = new LinkedHashMap<>();
+
+    /** Create a new unbounded board. */
+    public SparseBoard() {
+        this(UNBOUNDED);
+    }
+
+    /** Create a new board of the specified size. */
+    public SparseBoard(int size) {
+        super(size, false);
+        this.size = size;
+        clear();
+    }
+
+    /** Return the size of this board, or UNBOUNDED. */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** Return the places of the board. For a board created with a
+     * size this is the whole size x size grid, and board()[i][j] is
+     * the place (i, j), as with Board. An unbounded board has no
+     * such grid, so it returns the smallest rectangle holding all the
+     * stones, or an empty array if there are none: board()[i][j] is
+     * the place (minX + i, minY + j), where minX and minY are the
+     * smallest indices of a stone. Each place carries its own x and
+     * y, and the places are created for this call.
+     *
+     * @throws IllegalStateException if the board, or for an unbounded
+     * board the stones, span too many places for an array
+     */
+    @Override
+    public Place[][] board() {
+        if(size != UNBOUNDED){
+            return grid(0, 0, size, size);
+        }
+        if(count == 0){
+            return new Place[0][0];
+        }
+        long minX = Long.MAX_VALUE;
+        long minY = Long.MAX_VALUE;
+        long maxX = Long.MIN_VALUE;
+        long maxY = Long.MIN_VALUE;
+        for(int i = 0; i < keys.length; i++){
+            if(owners[i] != null){
+                minX = Math.min(minX, xOf(keys[i]));
+                minY = Math.min(minY, yOf(keys[i]));
+                maxX = Math.max(maxX, xOf(keys[i]));
+                maxY = Math.max(maxY, yOf(keys[i]));
+            }
+        }
+        return grid(minX, minY, maxX - minX + 1, maxY - minY + 1);
+    }
+
+    /** Return the places of the rectangle starting at (minX, minY),
+     * with their owners. */
+    private Place[][] grid(long minX, long minY, long width, long height) {
+        if(height > 0 && width > Integer.MAX_VALUE / height){
+            throw new IllegalStateException(width + " x " + height + " places are too many for an array");
+        }
+        Place[][] board = new Place[(int) width][(int) height];
+        for(int i = 0; i < width; i++){
+            for(int j = 0; j < height; j++){
+                int x = (int) (minX + i);
+                int y = (int) (minY + j);
+                Place place = new Place(x, y);
+                place.owner = owners[slot(key(x, y))];
+                board[i][j] = place;
+            }
+        }
+        return board;
+    }
+
+    /** Return the number of stones on the board. */
+    public int stoneCount() {
+        return count;
+    }
+
+    @Override
+    public void clear() {
+        keys = new long[INITIAL_CAPACITY];
+        owners = new Player[INITIAL_CAPACITY];
+        count = 0;
+        winningRows.clear();
+    }
+
+    /** An unbounded board is never full. */
+    @Override
+    public boolean isFull() {
+        return size != UNBOUNDED && count == (long) size * size;
+    }
+
+    @Override
+    public void placeStone(int x, int y, Player player) {
+        checkBounds(x, y);
+        Player previous = playerAt(x, y);
+        if(player == null){
+            remove(key(x, y));
+        }
+        else{
+            put(key(x, y), player);
+        }
+        if(previous != null && previous != player && winningRows.containsKey(previous)){
+            rescan();
+        }
+        else if(player != null && !winningRows.containsKey(player)){
+            List<Place> row = rowThrough(x, y, player);
+            if(row != null){
+                winningRows.put(player, row);
+            }
+        }
+    }
+
+    @Override
+    public boolean isEmpty(int x, int y) {
+        return playerAt(x, y) == null;
+    }
+
+    @Override
+    public boolean isOccupied(int x, int y) {
+        return playerAt(x, y) != null;
+    }
+
+    @Override
+    public boolean isOccupiedBy(int x, int y, Player player) {
+        return playerAt(x, y) == player;
+    }
+
+    @Override
+    public Player playerAt(int x, int y) {
+        checkBounds(x, y);
+        return owners[slot(key(x, y))];
+    }
+
+    @Override
+    public boolean isWonBy(Player player) {
+        return winningRows.containsKey(player);
+    }
+
+    @Override
+    public Iterable<Place> winningRow() {
+        for(List<Place> row: winningRows.values()){
+            return row;
+        }
+        return null;
+    }
+
+    @Override
+    public Iterable<Place> realWinningRow(Player player) {
+        return winningRows.get(player);
+    }
+
+    /**
+     * Return the places holding a stone, in no particular order.
+     * The places are copies: changing their owner does not change
+     * the board.
+     */
+    public List<Place> stones() {
+        List<Place> places = new ArrayList<>(count);
+        for(int i = 0; i < keys.length; i++){
+            if(owners[i] != null){
+                places.add(place(keys[i], owners[i]));
+            }
+        }
+        return places;
+    }
+
+    /**
+     * Return the empty places within the given distance of a stone,
+     * visiting only the surroundings of the stones on the board.
+     */
+    @Override
+    public List<Place> neighbors(int distance) {
+        SparseBoard seen = new SparseBoard(size);
+        Player mark = new Player("seen");
+        List<Place> places = new ArrayList<>();
+        for(int i = 0; i < keys.length; i++){
+            if(owners[i] == null){
+                continue;
+            }
+            long cx = xOf(keys[i]);
+            long cy = yOf(keys[i]);
+            for(long x = cx - distance; x <= cx + distance; x++){
+                for(long y = cy - distance; y <= cy + distance; y++){
+                    if(inBounds(x, y) && isEmpty((int) x, (int) y) && !seen.isOccupied((int) x, (int) y)){
+                        seen.put(key((int) x, (int) y), mark);
+                        places.add(new Place((int) x, (int) y));
+                    }
+                }
+            }
+        }
+        return places;
+    }
+
+    /**
+     * Return the first five places of the run of the given player's
+     * stones passing through (x, y), or null if no run through that
+     * place is five or more stones long. Only looks at stones on
+     * the four lines through (x, y).
+     */
+    private List<Place> rowThrough(long x, long y, Player player) {
+        for(int[] direction: DIRECTIONS){
+            int dx = direction[0];
+            int dy = direction[1];
+            long startX = x;
+            long startY = y;
+            while(ownedBy(startX - dx, startY - dy, player)){
+                startX -= dx;
+                startY -= dy;
+            }
+            List<Place> places = new ArrayList<>(5);
+            long i = startX;
+            long j = startY;
+            while(places.size() < 5 && ownedBy(i, j, player)){
+                Place place = new Place((int) i, (int) j);
+                place.owner = player;
+                places.add(place);
+                i += dx;
+                j += dy;
+            }
+            if(places.size() == 5){
+                return places;
+            }
+        }
+        return null;
+    }
+
+    /** Rebuild the winning rows from the stones on the board. Only
+     * needed when a stone that is part of a winning row gets
+     * overwritten. */
+    private void rescan() {
+        winningRows.clear();
+        for(int i = 0; i < keys.length; i++){
+            Player owner = owners[i];
+            if(owner != null && !winningRows.containsKey(owner)){
+                List<Place> row = rowThrough(xOf(keys[i]), yOf(keys[i]), owner);
+                if(row != null){
+                    winningRows.put(owner, row);
+                }
+            }
+        }
+    }
+
+    private boolean ownedBy(long x, long y, Player player) {
+        return inBounds(x, y) && owners[slot(key((int) x, (int) y))] == player;
+    }
+
+    private boolean inBounds(long x, long y) {
+        if(size == UNBOUNDED){
+            return x >= Integer.MIN_VALUE && y >= Integer.MIN_VALUE && x <= Integer.MAX_VALUE && y <= Integer.MAX_VALUE;
+        }
+        return x >= 0 && y >= 0 && x < size && y < size;
+    }
+
+    private void checkBounds(int x, int y) {
+        if(!inBounds(x, y)){
+            throw new IndexOutOfBoundsException("(" + x + ", " + y + ") is not on a board of size " + size);
+        }
+    }
+
+    private static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+    private static int xOf(long key) {
+        return (int) (key >> 32);
+    }
+    private static int yOf(long key) {
+        return (int) key;
+    }
+    private static Place place(long key, Player owner) {
+        Place place = new Place(xOf(key), yOf(key));
+        place.owner = owner;
+        return place;
+    }
+
+    /** Return the slot a key hashes to. */
+    private int home(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & (keys.length - 1);
+    }
+
+    /** Return the slot holding the key, or the free slot where it
+     * would go. */
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int i = home(key);
+        while(owners[i] != null && keys[i] != key){
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void put(long key, Player player) {
+        int i = slot(key);
+        if(owners[i] == null){
+            // Keep the table at most half full so probes stay short
+            if((count + 1) * 2 > keys.length){
+                grow();
+                i = slot(key);
+            }
+            keys[i] = key;
+            count++;
+        }
+        owners[i] = player;
+    }
+
+    /** Remove a key, shifting later entries of its probe run back so
+     * lookups never stop at the hole. */
+    private void remove(long key) {
+        int i = slot(key);
+        if(owners[i] == null){
+            return;
+        }
+        int mask = keys.length - 1;
+        owners[i] = null;
+        count--;
+        for(int j = (i + 1) & mask; owners[j] != null; j = (j + 1) & mask){
+            int home = home(keys[j]);
+            // Move the entry into the hole unless its home lies after the hole
+            boolean movable = i <= j ? (home <= i || home > j) : (home <= i && home > j);
+            if(movable){
+                keys[i] = keys[j];
+                owners[i] = owners[j];
+                owners[j] = null;
+                i = j;
+            }
+        }
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        Player[] oldOwners = owners;
+        keys = new long[oldKeys.length * 2];
+        owners = new Player[oldKeys.length * 2];
+        for(int i = 0; i < oldKeys.length; i++){
+            if(oldOwners[i] != null){
+                int j = slot(oldKeys[i]);
+                keys[j] = oldKeys[i];
+                owners[j] = oldOwners[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package omok;
+import java.util.List;
+
+/**
+ * Outcome of one multi-PV SearchEngine analysis: the best few moves of a
+ * position, best first, each with its score and expected continuation
+ */
+public class Analysis {
+    /**
+     * One candidate move
+     */
+    public static class Line {
+        private final int[] move;
+        private final int score;
+        private final int[][] variation;
+
+        public Line(int[] move, int score, int[][] variation){
+            this.move = move;
+            this.score = score;
+            this.variation = variation;
+        }
+        /**
+         * @return the 1-based x, y coordinates of the move
+         */
+        public int[] getMove(){
+            return move;
+        }
+        /**
+         * @return the score of the move from the searching player's point of view
+         */
+        public int getScore(){
+            return score;
+        }
+        /**
+         * @return the expected continuation as 1-based x, y coordinates, starting with the move itself
+         */
+        public int[][] getVariation(){
+            return variation;
+        }
+    }
+
+    private final List<Line> lines;
+    private final int depth;
+    private final long nodes;
+    private final long timeMillis;
+
+    public Analysis(List<Line> lines, int depth, long nodes, long timeMillis){
+        this.lines = lines;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.timeMillis = timeMillis;
+    }
+
+    /**
+     * @return the candidate moves, best first
+     */
+    public List<Line> getLines(){
+        return lines;
+    }
+    /**
+     * @return the deepest fully completed iteration
+     */
+    public int getDepth(){
+        return depth;
+    }
+    /**
+     * @return the number of positions visited so far
+     */
+    public long getNodes(){
+        return nodes;
+    }
+    /**
+     * @return the wall-clock time the analysis has taken so far
+     */
+    public long getTimeMillis(){
+        return timeMillis;
+    }
+}
@@ -0,0 +1,373 @@
+package omok;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Scores a stream of positions offline on a pool of workers, each with
+ * its own SearchEngine. The calling thread reads positions into a bounded
+ * queue and writes the results in input order; at most a fixed window of
+ * positions is in flight at once, so reading waits for the workers and
+ * memory does not grow with the input. Every position is searched from
+ * an empty transposition table, so its result does not depend on which
+ * worker scored it or what that worker scored before. Positions and
+ * results are text lines,
+ * <pre>
+ * position: id player height width cells      cells row by row as digits 0, 1 and 2
+ * result:   id x y score depth nodes          1-based x and y, or "id none" for a full board
+ * </pre>
+ * From the command line,
+ * <pre>
+ * java omok.AnalysisPipeline positions.txt results.txt [workers [millis]]
+ * java omok.AnalysisPipeline --journal journal.bin results.txt [workers [millis]]
+ * </pre>
+ * where a journal yields the position before every move of its games,
+ * read straight from the file as the pipeline asks for positions.
+ */
+public class AnalysisPipeline {
+    /** Default thinking time per position */
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 200;
+    /** Positions in flight per worker */
+    private static final int WINDOW_PER_WORKER = 4;
+
+    private final SearchEngine[] engines;
+
+    /**
+     * A position to score
+     */
+    public static class Position {
+        private final String id;
+        private final int playerNum;
+        private final int[][] board;
+
+        /**
+         * @param id names the position in the results, without spaces
+         * @param playerNum the player to move
+         * @param board the cells, kept by the position
+         */
+        public Position(String id, int playerNum, int[][] board){
+            this.id = id;
+            this.playerNum = playerNum;
+            this.board = board;
+        }
+        public String getId(){
+            return id;
+        }
+        public int getPlayerNum(){
+            return playerNum;
+        }
+        public int[][] getBoard(){
+            return board;
+        }
+
+        /**
+         * Reads a position line
+         * @throws IllegalArgumentException if the line is not a valid position
+         */
+        public static Position parse(String line){
+            String[] fields = line.trim().split("\\s+");
+            if (fields.length != 5){
+                throw new IllegalArgumentException("Not a position: " + line);
+            }
+            int playerNum = Integer.parseInt(fields[1]);
+            if (playerNum != 1 && playerNum != 2){
+                throw new IllegalArgumentException("Position " + fields[0] + " has player " + playerNum + " to move");
+            }
+            int height = Integer.parseInt(fields[2]);
+            int width = Integer.parseInt(fields[3]);
+            if (height < 1 || width < 1){
+                throw new IllegalArgumentException("Position " + fields[0] + " is " + height + "x" + width);
+            }
+            String cells = fields[4];
+            if (cells.length() != (long) height * width){
+                throw new IllegalArgumentException("Position " + fields[0] + " has " + cells.length() + " cells, not " + (long) height * width);
+            }
+            int[][] board = new int[height][width];
+            for (int i = 0; i < height; i++){
+                for (int j = 0; j < width; j++){
+                    char cell = cells.charAt(i * width + j);
+                    if (cell < '0' || cell > '2'){
+                        throw new IllegalArgumentException("Position " + fields[0] + " has cell '" + cell + "'");
+                    }
+                    board[i][j] = cell - '0';
+                }
+            }
+            return new Position(fields[0], playerNum, board);
+        }
+        /**
+         * @return the position as a line that parse reads back
+         */
+        public String format(){
+            StringBuilder line = new StringBuilder(id).append(' ').append(playerNum)
+                    .append(' ').append(board.length).append(' ').append(board[0].length).append(' ');
+            for (int[] row : board){
+                for (int cell : row){
+                    line.append(cell);
+                }
+            }
+            return line.toString();
+        }
+    }
+
+    /**
+     * @param workers number of positions scored at once
+     * @param timeBudgetMillis thinking time per position
+     */
+    public AnalysisPipeline(int workers, long timeBudgetMillis){
+        if (workers < 1){
+            throw new IllegalArgumentException("Worker count cannot be " + workers);
+        }
+        engines = new SearchEngine[workers];
+        for (int i = 0; i < workers; i++){
+            engines[i] = new SearchEngine(timeBudgetMillis);
+        }
+    }
+
+    /**
+     * Stops every search at the given depth, which makes results repeatable
+     * @see SearchEngine#setDepthLimit
+     */
+    public void setDepthLimit(int depthLimit){
+        for (SearchEngine engine : engines){
+            engine.setDepthLimit(depthLimit);
+        }
+    }
+
+    /** A position on its way through the workers */
+    private static class Task {
+        private final long sequence;
+        private final Position position;
+
+        Task(long sequence, Position position){
+            this.sequence = sequence;
+            this.position = position;
+        }
+    }
+
+    /**
+     * Scores every position and writes a result line for each, in input order
+     * @param out receives the result lines; it is flushed, not closed
+     * @return the number of positions scored
+     */
+    public long run(Iterator<Position> positions, Writer out) throws IOException{
+        int window = WINDOW_PER_WORKER * engines.length;
+        BlockingQueue<Task> queue = new ArrayBlockingQueue<>(window);
+        // Result line of each sequence number in flight, at sequence % window; guarded by itself
+        String[] results = new String[window];
+        RuntimeException[] failure = new RuntimeException[1];
+        Thread[] workers = new Thread[engines.length];
+        for (int i = 0; i < workers.length; i++){
+            SearchEngine engine = engines[i];
+            workers[i] = new Thread(() -> work(engine, queue, results, failure), "omok-analysis-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+        long read = 0;
+        long written = 0;
+        try{
+            while (positions.hasNext()){
+                if (read - written == window){
+                    out.write(next(results, written++, failure));
+                }
+                queue.put(new Task(read++, positions.next()));
+                while (written < read && ready(results, written)){
+                    out.write(next(results, written++, failure));
+                }
+            }
+            while (written < read){
+                out.write(next(results, written++, failure));
+            }
+            out.flush();
+        }
+        catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while analyzing", e);
+        }
+        finally{
+            for (Thread worker : workers){
+                worker.interrupt();
+            }
+        }
+        return read;
+    }
+
+    private static void work(SearchEngine engine, BlockingQueue<Task> queue, String[] results, RuntimeException[] failure){
+        while (true){
+            Task task;
+            try{
+                task = queue.take();
+            }
+            catch (InterruptedException e){
+                return;
+            }
+            String result;
+            try{
+                result = score(engine, task.position);
+            }
+            catch (RuntimeException e){
+                synchronized (results){
+                    failure[0] = e;
+                    results.notifyAll();
+                }
+                return;
+            }
+            synchronized (results){
+                results[(int) (task.sequence % results.length)] = result;
+                results.notifyAll();
+            }
+        }
+    }
+
+    private static String score(SearchEngine engine, Position position){
+        int width = position.board[0].length;
+        engine.clearTable();
+        int move = engine.searchMove(new Board(position.board), position.playerNum);
+        if (move < 0){
+            return position.id + " none\n";
+        }
+        return position.id + ' ' + (move / width + 1) + ' ' + (move % width + 1) + ' ' + engine.getLastScore()
+                + ' ' + engine.getLastDepth() + ' ' + engine.getLastNodes() + '\n';
+    }
+
+    private static boolean ready(String[] results, long sequence){
+        synchronized (results){
+            return results[(int) (sequence % results.length)] != null;
+        }
+    }
+    /** Waits for the result of a sequence number and frees its slot */
+    private static String next(String[] results, long sequence, RuntimeException[] failure) throws InterruptedException{
+        int slot = (int) (sequence % results.length);
+        synchronized (results){
+            while (results[slot] == null){
+                if (failure[0] != null){
+                    throw new IllegalStateException("Analysis worker failed", failure[0]);
+                }
+                results.wait();
+            }
+            String result = results[slot];
+            results[slot] = null;
+            return result;
+        }
+    }
+
+    /**
+     * Reads position lines one at a time, skipping blank ones
+     */
+    public static Iterator<Position> positions(BufferedReader in){
+        return new Iterator<Position>(){
+            private String line;
+
+            @Override
+            public boolean hasNext(){
+                try{
+                    while (line == null || line.isBlank()){
+                        line = in.readLine();
+                        if (line == null){
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+                catch (IOException e){
+                    throw new UncheckedIOException(e);
+                }
+            }
+            @Override
+            public Position next(){
+                if (!hasNext()){
+                    throw new NoSuchElementException();
+                }
+                Position position = Position.parse(line);
+                line = null;
+                return position;
+            }
+        };
+    }
+
+    /**
+     * Yields the position before every move recorded in a journal, named
+     * game:move, in the order the moves were recorded. Only the boards of
+     * games still in progress at the current record are kept.
+     */
+    public static Iterator<Position> positions(JournalReplay.Records records){
+        return new Iterator<Position>(){
+            /** Board and moves so far of every game started and not yet ended */
+            private final Map<Long, Board> boards = new HashMap<>();
+            private final Map<Long, Integer> moves = new HashMap<>();
+            private boolean pending;
+
+            @Override
+            public boolean hasNext(){
+                while (!pending){
+                    if (!records.next()){
+                        return false;
+                    }
+                    long game = records.getGame();
+                    if (records.getType() == GameJournal.GAME_START){
+                        boards.put(game, new Board(records.getHeight(), records.getWidth()));
+                        moves.put(game, 0);
+                    }
+                    else if (records.getType() == GameJournal.GAME_END){
+                        boards.remove(game);
+                        moves.remove(game);
+                    }
+                    else if (records.getType() == GameJournal.MOVE && boards.containsKey(game)){
+                        pending = true;
+                    }
+                }
+                return true;
+            }
+            @Override
+            public Position next(){
+                if (!hasNext()){
+                    throw new NoSuchElementException();
+                }
+                pending = false;
+                long game = records.getGame();
+                Board board = boards.get(game);
+                int move = moves.get(game);
+                Position position = new Position(game + ":" + move, records.getPlayerNum(), board.getSnapshot());
+                board.placeStone(records.getX(), records.getY(), records.getPlayerNum());
+                moves.put(game, move + 1);
+                return position;
+            }
+        };
+    }
+
+    public static void main(String[] args) throws IOException{
+        boolean journal = args.length > 0 && args[0].equals("--journal");
+        int first = journal ? 1 : 0;
+        if (args.length < first + 2){
+            System.out.println("Usage: AnalysisPipeline [--journal] input results [workers [millis]]");
+            return;
+        }
+        int workers = args.length > first + 2 ? Integer.parseInt(args[first + 2]) : Runtime.getRuntime().availableProcessors();
+        long millis = args.length > first + 3 ? Long.parseLong(args[first + 3]) : DEFAULT_TIME_BUDGET_MILLIS;
+        AnalysisPipeline pipeline = new AnalysisPipeline(workers, millis);
+        long start = System.nanoTime();
+        long count;
+        try (BufferedWriter out = Files.newBufferedWriter(Paths.get(args[first + 1]), StandardCharsets.UTF_8)){
+            if (journal){
+                count = pipeline.run(positions(JournalReplay.records(Paths.get(args[first]))), out);
+            }
+            else{
+                try (BufferedReader in = Files.newBufferedReader(Paths.get(args[first]), StandardCharsets.UTF_8)){
+                    count = pipeline.run(positions(in), out);
+                }
+            }
+        }
+        long millisTaken = (System.nanoTime() - start) / 1000000L;
+        System.out.println("Analyzed " + count + " positions in " + millisTaken + " ms on " + workers + " workers");
+    }
+}
@@ -0,0 +1,129 @@
+package omok;
+
+/**
+ * Packed set of board intersections, one bit per cell.
+ * Rows are stored one after another with a spare, always empty column at
+ * the end of each row, so shifting by 1, width, width + 1 or width + 2
+ * moves every stone one step along a line without wrapping onto the next row.
+ */
+public class BitBoard {
+    /** Shift that moves one step to the right along a row */
+    public static final int HORIZONTAL = 0;
+    /** Shift that moves one step down a column */
+    public static final int VERTICAL = 1;
+    /** Shift that moves one step down and to the right */
+    public static final int DIAGONAL = 2;
+    /** Shift that moves one step down and to the left */
+    public static final int ANTI_DIAGONAL = 3;
+
+    private final int stride;
+    private final int[] shifts;
+    private final long[] words;
+    private final long[] run;
+
+    public BitBoard(int height, int width){
+        stride = width + 1;
+        shifts = new int[] {1, stride, stride + 1, stride - 1};
+        words = new long[(height * stride + 63) >>> 6];
+        run = new long[words.length];
+    }
+
+    /**
+     * @param x 0-based row
+     * @param y 0-based column
+     * @return the bit index of the cell
+     */
+    public int index(int x, int y){
+        return x * stride + y;
+    }
+    /**
+     * @param index a bit index returned by {@link #index(int, int)}
+     * @return the 0-based row of the cell
+     */
+    public int row(int index){
+        return index / stride;
+    }
+    /**
+     * @param index a bit index returned by {@link #index(int, int)}
+     * @return the 0-based column of the cell
+     */
+    public int column(int index){
+        return index % stride;
+    }
+    /**
+     * @param direction one of the direction constants
+     * @return the bit index distance between neighbouring cells in that direction
+     */
+    public int shift(int direction){
+        return shifts[direction];
+    }
+
+    public void set(int x, int y){
+        int i = index(x, y);
+        words[i >>> 6] |= 1L << i;
+    }
+    public void clear(int x, int y){
+        int i = index(x, y);
+        words[i >>> 6] &= ~(1L << i);
+    }
+    public boolean get(int x, int y){
+        int i = index(x, y);
+        return (words[i >>> 6] & (1L << i)) != 0;
+    }
+    public boolean isEmpty(){
+        for (long word : words){
+            if (word != 0){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds a run of set cells along one direction by and-ing the board
+     * with copies of itself shifted one step further each time.
+     * @param direction one of the direction constants
+     * @param length number of consecutive cells required
+     * @return the bit index of the first cell of a run, or -1 if there is none
+     */
+    public int findRun(int direction, int length){
+        int shift = shifts[direction];
+        System.arraycopy(words, 0, run, 0, words.length);
+        for (int k = 1; k < length; k++){
+            if (!andShifted(k * shift)){
+                return -1;
+            }
+        }
+        for (int w = 0; w < run.length; w++){
+            if (run[w] != 0){
+                return (w << 6) + Long.numberOfTrailingZeros(run[w]);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * run &= words >>> n, across word boundaries
+     * @return false if run became empty
+     */
+    private boolean andShifted(int n){
+        int wordShift = n >>> 6;
+        int bitShift = n & 63;
+        long any = 0;
+        for (int w = 0; w < run.length; w++){
+            int from = w + wordShift;
+            long lo = from < words.length ? words[from] : 0;
+            long shifted;
+            if (bitShift == 0){
+                shifted = lo;
+            }
+            else{
+                long hi = from + 1 < words.length ? words[from + 1] : 0;
+                shifted = (lo >>> bitShift) | (hi << (64 - bitShift));
+            }
+            run[w] &= shifted;
+            any |= run[w];
+        }
+        return any != 0;
+    }
+}
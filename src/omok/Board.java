@@ -0,0 +1,353 @@
+package omok;
+import java.util.Arrays;
+
+public class Board {
+    private int[][] board;
+    private int width;
+    private int height;
+    /** Stones of each player packed one bit per cell, indexed by player number */
+    private BitBoard[] stones = new BitBoard[3];
+    /** Stones of the five found by checkWin, for drawing only; created by the first win */
+    private BitBoard highlight;
+    /** Zobrist hash of the stones on the board, kept up to date as stones come and go */
+    private long hash;
+    /** Number of stones within FRONTIER_DISTANCE of each cell, by 0-based cell index */
+    private int[] nearby;
+    /** Empty cells with at least one stone nearby, in no particular order */
+    private int[] frontier;
+    /** Position of each cell in frontier, or -1 if it is not in it */
+    private int[] frontierIndex;
+    private int frontierSize;
+    private int stoneCount;
+    /** Cells played by makeMove and not yet taken back, oldest first */
+    private int[] history;
+    private int historySize;
+
+    /** Empty cells this close to a stone (in rows or columns) are candidate moves */
+    public static final int FRONTIER_DISTANCE = 2;
+
+    public Board(int[][] boardArray){
+        this.board = new int[boardArray.length][];
+        for (int i = 0; i < boardArray.length; i++){
+            board[i] = boardArray[i].clone();
+        }
+        height = board.length;
+        width = height == 0 ? 0 : board[0].length;
+        initFrontier();
+        for (int i = 0; i < height; i++){
+            for (int j = 0; j < width; j++){
+                if (board[i][j] > 0){
+                    stonesOf(board[i][j]).set(i, j);
+                    hash ^= Zobrist.key(i * width + j, board[i][j]);
+                    addToFrontier(i, j);
+                }
+            }
+        }
+    }
+    public Board(int x, int y){
+        height = x;
+        width = y;
+        init(x, y);
+        initFrontier();
+    }
+    public Board(){
+        this(10, 10);
+    }
+    private void init(int x, int y){
+        board = new int[x][y];
+        for (int i = 0; i < x; i++){
+            for (int j = 0; j < y; j++){
+                board[i][j] = 0;
+            }
+        }
+    }
+    /**
+     * @return the live cells of this board; write to them only through placeStone and removeStone
+     */
+    public int[][] getBoard(){
+        return board;
+    }
+    /**
+     * @return a copy of the cells that can be handed out without exposing the board
+     */
+    public int[][] getSnapshot(){
+        int[][] snapshot = new int[height][];
+        for (int i = 0; i < height; i++){
+            snapshot[i] = board[i].clone();
+        }
+        return snapshot;
+    }
+    /**
+     * Same as getSnapshot, with the stones of the five found by checkWin
+     * marked 3 for the user interface to tell apart. The mark is never
+     * written into the board itself, which only ever holds real stones.
+     * @return a copy of the cells to draw
+     */
+    public int[][] getHighlightedSnapshot(){
+        int[][] snapshot = getSnapshot();
+        if (highlight != null){
+            for (int i = 0; i < height; i++){
+                for (int j = 0; j < width; j++){
+                    if (highlight.get(i, j)){
+                        snapshot[i][j] = 3;
+                    }
+                }
+            }
+        }
+        return snapshot;
+    }
+    /**
+     * @return the number of rows (x coordinates)
+     */
+    public int getHeight(){
+        return height;
+    }
+    /**
+     * @return the number of columns (y coordinates)
+     */
+    public int getWidth(){
+        return width;
+    }
+    /**
+     * @return the Zobrist hash of the stones currently on the board
+     */
+    public long getHash(){
+        return hash;
+    }
+    /**
+     *Will place stone in given coordinate if the position is empty
+     *@param x x coordinate to place stone in.
+     *@param y y coordinate to place stone in.
+     *@return false if position is occupied, true otherwise.
+     */
+    public boolean placeStone(int x, int y, int playerNum){
+        if (x-1 >= board.length || y-1 >= board[0].length || x < 1 || y < 1 || board[x-1][y-1] != 0){
+            return false;
+        }
+        put(x-1, y-1, playerNum);
+        return true;
+    }
+
+    /**
+     * Removes the stone in the given coordinate, undoing placeStone
+     *@param x x coordinate to remove the stone from.
+     *@param y y coordinate to remove the stone from.
+     *@return false if position was already empty, true otherwise.
+     */
+    public boolean removeStone(int x, int y){
+        if (x-1 >= board.length || y-1 >= board[0].length || x < 1 || y < 1 || board[x-1][y-1] == 0){
+            return false;
+        }
+        take(x-1, y-1);
+        return true;
+    }
+
+    /**
+     * Plays a move for search, to be taken back with undoMove. The hash,
+     * bitboards and frontier are updated in place, so a search can explore
+     * a position without copying it. There are no checks: the cell must be
+     * on the board and empty.
+     *@param cell 0-based cell index (row * width + column)
+     *@param playerNum player to place the stone for
+     */
+    public void makeMove(int cell, int playerNum){
+        history[historySize++] = cell;
+        put(cell / width, cell % width, playerNum);
+    }
+    /**
+     * Takes back the latest move played by makeMove
+     *@return the 0-based cell index the move was played on
+     */
+    public int undoMove(){
+        int cell = history[--historySize];
+        take(cell / width, cell % width);
+        return cell;
+    }
+    /**
+     * @return true if the latest move played by makeMove completes five in a row
+     */
+    public boolean lastMoveWins(){
+        int cell = history[historySize - 1];
+        return isWinningStone(cell / width + 1, cell % width + 1);
+    }
+    /**
+     * @return the number of moves played by makeMove and not yet taken back
+     */
+    public int getMoveCount(){
+        return historySize;
+    }
+
+    private void put(int x, int y, int playerNum){
+        stonesOf(playerNum).set(x, y);
+        hash ^= Zobrist.key(x * width + y, playerNum);
+        board[x][y] = playerNum;
+        addToFrontier(x, y);
+    }
+    private void take(int x, int y){
+        if (highlight != null){
+            highlight.clear(x, y);
+        }
+        stonesOf(board[x][y]).clear(x, y);
+        hash ^= Zobrist.key(x * width + y, board[x][y]);
+        board[x][y] = 0;
+        removeFromFrontier(x, y);
+    }
+
+    /**
+     * Writes the candidate moves of this position into a caller supplied
+     * buffer: every empty cell within FRONTIER_DISTANCE of a stone, or the
+     * centre of an empty board. The frontier is kept up to date as stones
+     * are placed and removed, so this only copies it.
+     *@param moves buffer of at least width * height entries, receives 0-based cell indices (row * width + column)
+     *@return the number of moves written
+     */
+    public int generateMoves(int[] moves){
+        if (stoneCount == 0){
+            if (height == 0 || width == 0){
+                return 0;
+            }
+            moves[0] = (height / 2) * width + width / 2;
+            return 1;
+        }
+        System.arraycopy(frontier, 0, moves, 0, frontierSize);
+        return frontierSize;
+    }
+    /**
+     * @return the number of empty cells within FRONTIER_DISTANCE of a stone
+     */
+    public int getFrontierSize(){
+        return frontierSize;
+    }
+    /**
+     * @return the number of stones on the board
+     */
+    public int getStoneCount(){
+        return stoneCount;
+    }
+    /**
+     * @return true if there is no empty cell left
+     */
+    public boolean isFull(){
+        return stoneCount == width * height;
+    }
+
+    private void initFrontier(){
+        int area = width * height;
+        nearby = new int[area];
+        frontier = new int[area];
+        frontierIndex = new int[area];
+        history = new int[area];
+        Arrays.fill(frontierIndex, -1);
+    }
+    private void addToFrontier(int x, int y){
+        stoneCount++;
+        leaveFrontier(x * width + y);
+        for (int i = Math.max(0, x - FRONTIER_DISTANCE); i <= Math.min(height - 1, x + FRONTIER_DISTANCE); i++){
+            for (int j = Math.max(0, y - FRONTIER_DISTANCE); j <= Math.min(width - 1, y + FRONTIER_DISTANCE); j++){
+                int cell = i * width + j;
+                if ((i != x || j != y) && nearby[cell]++ == 0 && board[i][j] == 0){
+                    joinFrontier(cell);
+                }
+            }
+        }
+    }
+    private void removeFromFrontier(int x, int y){
+        stoneCount--;
+        for (int i = Math.max(0, x - FRONTIER_DISTANCE); i <= Math.min(height - 1, x + FRONTIER_DISTANCE); i++){
+            for (int j = Math.max(0, y - FRONTIER_DISTANCE); j <= Math.min(width - 1, y + FRONTIER_DISTANCE); j++){
+                int cell = i * width + j;
+                if ((i != x || j != y) && --nearby[cell] == 0){
+                    leaveFrontier(cell);
+                }
+            }
+        }
+        if (nearby[x * width + y] > 0){
+            joinFrontier(x * width + y);
+        }
+    }
+    private void joinFrontier(int cell){
+        frontierIndex[cell] = frontierSize;
+        frontier[frontierSize++] = cell;
+    }
+    private void leaveFrontier(int cell){
+        int index = frontierIndex[cell];
+        if (index < 0){
+            return;
+        }
+        int last = frontier[--frontierSize];
+        frontier[index] = last;
+        frontierIndex[last] = index;
+        frontierIndex[cell] = -1;
+    }
+
+    /**
+     * Checks if the stone in the given coordinate is part of five in a row,
+     * looking only at the four lines through it. Unlike checkWin this does
+     * not highlight anything.
+     *@param x x coordinate of the stone.
+     *@param y y coordinate of the stone.
+     *@return true if the stone completes five in a row for its owner
+     */
+    public boolean isWinningStone(int x, int y){
+        int playerNum = board[x-1][y-1];
+        if (playerNum == 0){
+            return false;
+        }
+        return runLength(x-1, y-1, 1, 0, playerNum) >= 5 ||
+                runLength(x-1, y-1, 0, 1, playerNum) >= 5 ||
+                runLength(x-1, y-1, 1, 1, playerNum) >= 5 ||
+                runLength(x-1, y-1, 1, -1, playerNum) >= 5;
+    }
+    private int runLength(int x, int y, int dx, int dy, int playerNum){
+        int length = 1;
+        for (int i = x + dx, j = y + dy; i >= 0 && j >= 0 && i < height && j < width && board[i][j] == playerNum; i += dx, j += dy){
+            length++;
+        }
+        for (int i = x - dx, j = y - dy; i >= 0 && j >= 0 && i < height && j < width && board[i][j] == playerNum; i -= dx, j -= dy){
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Checks if board position is winning for player, marking the five
+     * found for getHighlightedSnapshot
+     * @return true if player has won
+     * @param playerNum player number to check for
+     */
+    public boolean checkWin(int playerNum){
+        if (playerNum < 1 || playerNum >= stones.length || stones[playerNum] == null){
+            return false;
+        }
+        BitBoard bits = stones[playerNum];
+        for (int direction = 0; direction < 4; direction++){
+            int start = bits.findRun(direction, 5);
+            if (start >= 0){
+                highlightWin(bits, start, bits.shift(direction));
+                return true;
+            }
+        }
+        return false;
+    }
+    private void highlightWin(BitBoard bits, int start, int shift){
+        if (highlight == null){
+            highlight = new BitBoard(height, width);
+        }
+        for (int i = 0; i < 5; i++){
+            int index = start + i * shift;
+            highlight.set(bits.row(index), bits.column(index));
+        }
+    }
+    private BitBoard stonesOf(int playerNum){
+        if (playerNum < 1){
+            throw new IllegalArgumentException("Player number cannot be " + playerNum);
+        }
+        if (playerNum >= stones.length){
+            stones = Arrays.copyOf(stones, playerNum + 1);
+        }
+        if (stones[playerNum] == null){
+            stones[playerNum] = new BitBoard(height, width);
+        }
+        return stones[playerNum];
+    }
+}
@@ -0,0 +1,181 @@
+package omok;
+import java.util.function.Consumer;
+
+public class ComputerPlayer implements Playable{
+    /** Default thinking time per move */
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 1000;
+
+    private int playerNum;
+    private UserInterfaceable UI;
+    /** The player's own engine, or null if it borrows from engines */
+    private SearchEngine engine;
+    /** Lends the player an engine for each move, or null */
+    private EnginePool engines;
+    /** Private copy of the game board the engine searches on */
+    private Board mirror;
+    /** Consulted before searching, or null */
+    private OpeningBook book;
+    private boolean lastFromBook;
+    private boolean ponder;
+    public ComputerPlayer(int playerNum, UserInterfaceable ui){
+        this(playerNum, ui, DEFAULT_TIME_BUDGET_MILLIS);
+    }
+    public ComputerPlayer(int playerNum, UserInterfaceable ui, long timeBudgetMillis){
+        this(playerNum, ui, timeBudgetMillis, 1);
+    }
+    /**
+     * @param threads number of threads to search with, see {@link SearchEngine}
+     */
+    public ComputerPlayer(int playerNum, UserInterfaceable ui, long timeBudgetMillis, int threads){
+        this(playerNum, ui, new SearchEngine(timeBudgetMillis, SearchEngine.DEFAULT_TABLE_MEGABYTES, threads));
+    }
+    /**
+     * @param engine a configured engine to choose moves with
+     */
+    public ComputerPlayer(int playerNum, UserInterfaceable ui, SearchEngine engine){
+        UI = ui;
+        this.playerNum = playerNum;
+        this.engine = engine;
+    }
+    /**
+     * Creates a player that owns no engine and borrows one from the pool
+     * for each move, so it cannot ponder
+     * @param engines the pool shared with other players
+     */
+    public ComputerPlayer(int playerNum, UserInterfaceable ui, EnginePool engines){
+        UI = ui;
+        this.playerNum = playerNum;
+        this.engines = engines;
+    }
+    /**
+     * @param book opening book to play from while it knows the position, or null to always search
+     */
+    public void setOpeningBook(OpeningBook book){
+        this.book = book;
+    }
+    /**
+     * @param ponder true to keep searching on the opponent's time, see {@link SearchEngine#startPondering};
+     *              a player borrowing its engines never ponders
+     */
+    public void setPondering(boolean ponder){
+        this.ponder = ponder && engine != null;
+        if (!ponder && engine != null){
+            engine.stopPondering();
+        }
+    }
+    /**
+     * Stops searching on the opponent's time and ends the engine's threads,
+     * for when the game is over; the player cannot move afterwards.
+     * A player borrowing its engines has none to shut down.
+     */
+    public void shutdown(){
+        if (engine != null){
+            engine.shutdown();
+        }
+    }
+    @Override
+    public int getPlayerNum(){return playerNum;}
+    @Override
+    public String getPlayerName() {
+        return "OMOKFISH";
+    }
+
+    @Override
+    public int[] getStonePlacement(int[][] board) {
+        UI.displayString("OMOKFISK is thinking...");
+        SearchEngine engine = engines != null ? engines.borrow() : this.engine;
+        int move;
+        try {
+            move = chooseMove(board, engine);
+            if (lastFromBook) {
+                UI.displayString("OMOKFISH played from its opening book");
+            }
+            else if (engine.getLastOutcome() == ProofNumberSolver.Outcome.WIN || engine.getLastOutcome() == ProofNumberSolver.Outcome.DRAW) {
+                UI.displayString("OMOKFISH solved the position in " + engine.getLastNodes() + " positions: " + engine.getLastOutcome());
+            }
+            else {
+                UI.displayString("OMOKFISH searched " + engine.getLastNodes() + " positions to depth " + engine.getLastDepth());
+            }
+        }
+        finally {
+            if (engines != null) {
+                engines.release(engine);
+            }
+        }
+        if (move < 0) {
+            return null;
+        }
+        if (ponder) {
+            mirror.placeStone(move / mirror.getWidth() + 1, move % mirror.getWidth() + 1, playerNum);
+            if (!mirror.isWinningStone(move / mirror.getWidth() + 1, move % mirror.getWidth() + 1)) {
+                engine.startPondering(mirror, 3 - playerNum);
+            }
+        }
+        return new int[] {move / mirror.getWidth() + 1, move % mirror.getWidth() + 1};
+    }
+
+    /**
+     * Ranks the best moves of a position with this player's engine, for
+     * analysis tools; see {@link SearchEngine#analyze}
+     * @param board the current state of the board, which is not changed
+     * @param lines the number of moves to rank
+     * @param progress receives the ranking after every completed iteration, or null
+     */
+    public Analysis analyze(int[][] board, int lines, Consumer<Analysis> progress) {
+        if (engines == null) {
+            return engine.analyze(new Board(board), playerNum, lines, progress);
+        }
+        SearchEngine borrowed = engines.borrow();
+        try {
+            return borrowed.analyze(new Board(board), playerNum, lines, progress);
+        }
+        finally {
+            engines.release(borrowed);
+        }
+    }
+
+    /**
+     * Picks a move without allocating once a board of the same size has been seen:
+     * the position is copied into a board kept between moves and searched there.
+     * @param board the current state of the board
+     * @return the 0-based cell index (row * width + column) to play, or -1 if the board is full
+     */
+    int chooseMove(int[][] board) {
+        if (engines == null) {
+            return chooseMove(board, engine);
+        }
+        SearchEngine borrowed = engines.borrow();
+        try {
+            return chooseMove(board, borrowed);
+        }
+        finally {
+            engines.release(borrowed);
+        }
+    }
+    private int chooseMove(int[][] board, SearchEngine engine) {
+        if (mirror == null || mirror.getHeight() != board.length || mirror.getWidth() != board[0].length) {
+            mirror = new Board(board.length, board[0].length);
+        }
+        int[][] cells = mirror.getBoard();
+        for (int i = 0; i < board.length; i++) {
+            for (int j = 0; j < board[i].length; j++) {
+                if (cells[i][j] != board[i][j]) {
+                    if (cells[i][j] != 0) {
+                        mirror.removeStone(i + 1, j + 1);
+                    }
+                    if (board[i][j] != 0) {
+                        mirror.placeStone(i + 1, j + 1, board[i][j]);
+                    }
+                }
+            }
+        }
+        if (book != null) {
+            int move = book.probe(mirror, playerNum);
+            lastFromBook = move >= 0;
+            if (lastFromBook) {
+                return move;
+            }
+        }
+        return engine.searchMove(mirror, playerNum);
+    }
+}
@@ -0,0 +1,92 @@
+package omok;
+import java.util.ArrayDeque;
+
+/**
+ * A bounded set of SearchEngines lent out one search at a time, so any
+ * number of computer players can share the memory of a few engines. An
+ * engine's transposition table and endgame solver are allocated once and
+ * then reused by every player that borrows it; entries are keyed by the
+ * position, so what one game leaves in a table is still right for another.
+ * Engines are created the first time they are needed, and a player waits
+ * while every engine is lent out.
+ */
+public class EnginePool implements AutoCloseable {
+    private final int maxEngines;
+    private final long timeBudgetMillis;
+    private final int tableMegabytes;
+    /** Engines not lent out, guarded by this */
+    private final ArrayDeque<SearchEngine> idle = new ArrayDeque<>();
+    /** Engines created so far, guarded by this */
+    private int created;
+    private boolean closed;
+
+    /**
+     * @param maxEngines the most engines ever created, and so searches run at once
+     * @param timeBudgetMillis the maximum time a single search may take
+     * @param tableMegabytes the memory given to each engine's transposition table
+     */
+    public EnginePool(int maxEngines, long timeBudgetMillis, int tableMegabytes){
+        if (maxEngines < 1){
+            throw new IllegalArgumentException("Engine count cannot be " + maxEngines);
+        }
+        this.maxEngines = maxEngines;
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.tableMegabytes = tableMegabytes;
+    }
+
+    /**
+     * Takes an engine, waiting for one to be returned if all are lent out
+     * @return an engine for the caller alone until it is released
+     */
+    public synchronized SearchEngine borrow(){
+        while (idle.isEmpty() && created == maxEngines && !closed){
+            try{
+                wait();
+            }
+            catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for an engine", e);
+            }
+        }
+        if (closed){
+            throw new IllegalStateException("The engine pool is closed");
+        }
+        if (!idle.isEmpty()){
+            return idle.pop();
+        }
+        created++;
+        return new SearchEngine(timeBudgetMillis, tableMegabytes);
+    }
+
+    /**
+     * Returns a borrowed engine for other players to use
+     */
+    public synchronized void release(SearchEngine engine){
+        if (closed){
+            engine.shutdown();
+            return;
+        }
+        idle.push(engine);
+        notifyAll();
+    }
+
+    /**
+     * @return the number of engines created so far, never more than the pool's size
+     */
+    public synchronized int getCreated(){
+        return created;
+    }
+
+    /**
+     * Shuts down the idle engines; engines still lent out are shut down when they come back
+     */
+    @Override
+    public synchronized void close(){
+        closed = true;
+        for (SearchEngine engine : idle){
+            engine.shutdown();
+        }
+        idle.clear();
+        notifyAll();
+    }
+}
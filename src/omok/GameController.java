@@ -0,0 +1,221 @@
+package omok;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntFunction;
+
+public class GameController {
+    boolean secret = false;
+    Board board = new Board();
+    Playable player1;
+    Playable player2;
+    UserInterfaceable UI;
+    boolean turnTracker = true;
+    /** Creates the computer opponent for a player number */
+    IntFunction<Playable> computer;
+    /** Suggests moves in secret mode, created when the mode is first used and closed when start returns */
+    HintService hints;
+    /** The hint for the position the current player is looking at, or null; guarded by hintLock */
+    CompletableFuture<int[]> hint;
+    final Object hintLock = new Object();
+    /** Records every game played, or null */
+    GameJournal journal;
+    /** Id of the current game in the journal */
+    long gameId;
+    /** Every start, move and end, for spectators */
+    final GameEventRing events = new GameEventRing();
+    public GameController(UserInterfaceable ui){
+        this(ui, null);
+    }
+    /**
+     * @param computer creates the computer players, or null for the default ComputerPlayer
+     */
+    public GameController(UserInterfaceable ui, IntFunction<Playable> computer){
+        this(ui, computer, null);
+    }
+    /**
+     * @param computer creates the computer players, or null for the default ComputerPlayer
+     * @param journal records the moves of every game, or null
+     */
+    public GameController(UserInterfaceable ui, IntFunction<Playable> computer, GameJournal journal){
+        UI = ui;
+        this.computer = computer != null ? computer : playerNum -> new ComputerPlayer(playerNum, UI);
+        this.journal = journal;
+    }
+
+    /**
+     * @return the ring the games of this controller are broadcast on, for spectators to read
+     */
+    public GameEventRing getEvents(){
+        return events;
+    }
+
+    /**
+     * Will start the Omok game Lifecycle, playing games until the
+     * user picks Exit Game
+     */
+    public void start(){
+        try{
+            while(true){
+                board = new Board();
+                int gameMode = UI.getGameMode();
+                switch(gameMode){
+                    case 1:
+                        startPvP();
+                        break;
+                    case 2:
+                        startStrategy();
+                        break;
+                    case 3:
+                        return;
+                    case -9:
+                        secret = true;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("GameMode cannot be " + gameMode);
+                }
+            }
+        }
+        finally{
+            if (hints != null){
+                hints.close();
+                hints = null;
+            }
+        }
+    }
+    private void startPvP(){
+        player1 = new LocalPlayer(UI, UI.getPlayerName(1), 1);
+        player2 = new LocalPlayer(UI, UI.getPlayerName(2), 2);
+        pvpLoop();
+    }
+    private void pvpLoop(){
+        if ((int) Math.random() * 2 >= 1){
+            turnTracker = true;
+        }
+        else{
+            turnTracker = false;
+        }
+        if (journal != null){
+            gameId = journal.startGame(board.getHeight(), board.getWidth());
+        }
+        events.publish(GameEventRing.GAME_START, board.getHeight(), board.getWidth(), 0);
+        int victorNum = 0;
+        while(victorNum == 0 && !board.isFull()){
+            if(turnTracker){
+                placeStone(player1);
+                if(board.checkWin(1)){
+                    victorNum = 1;
+                }
+                turnTracker = !turnTracker;
+            }
+            else{
+                placeStone(player2);
+                if(board.checkWin(2)){
+                    victorNum = 2;
+                }
+                turnTracker = !turnTracker;
+            }
+        }
+        if (journal != null){
+            journal.endGame(gameId, victorNum);
+        }
+        events.publish(GameEventRing.GAME_END, 0, 0, victorNum);
+        if (victorNum == 0) {
+            UI.drawTieScreen();
+        }
+        else if (victorNum == 1) {
+            UI.drawVictoryScreen(player1.getPlayerName());
+        }
+        else{
+            UI.drawVictoryScreen(player2.getPlayerName());
+        }
+    }
+    private void placeStone(Playable player){
+        int[] toPlace;
+        UI.drawBoard(board.getBoard());
+        if (!(player instanceof ComputerPlayer) && secret){
+            if (hints == null){
+                hints = new HintService();
+            }
+            CompletableFuture<int[]> request = hints.request(board.getSnapshot(), player.getPlayerNum());
+            synchronized (hintLock){
+                hint = request;
+            }
+            // Shown whenever it is ready while the player is still choosing, but never once
+            // the move is made: the lock keeps the check and the display together
+            request.thenAccept(omokhack -> {
+                synchronized (hintLock){
+                    if (omokhack != null && hint == request){
+                        UI.displayString("OMOKFISH would play " + omokhack[0] + ", " + omokhack[1] + " here");
+                    }
+                }
+            });
+        }
+        toPlace = player.getStonePlacement(board.getSnapshot());
+        while(!board.placeStone(toPlace[0], toPlace[1], player.getPlayerNum())){
+            UI.drawBoard(board.getBoard());
+            UI.displayString("Please enter a valid coordinate for your stone");
+            toPlace = player.getStonePlacement(board.getSnapshot());
+        }
+        synchronized (hintLock){
+            if (hint != null){
+                // Also stops the search if it is still running
+                hint.cancel(false);
+                hint = null;
+            }
+        }
+        if (journal != null){
+            journal.recordMove(gameId, toPlace[0], toPlace[1], player.getPlayerNum());
+        }
+        events.publish(GameEventRing.MOVE, toPlace[0], toPlace[1], player.getPlayerNum());
+    }
+    private void startStrategy(){
+        player1 = new LocalPlayer(UI, UI.getPlayerName(1), 1);
+        player2 = computer.apply(2);
+        strategyLoop();
+    }
+
+    private void strategyLoop(){
+        if ((int) Math.random() * 2 >= 1){
+            turnTracker = true;
+        }
+        else{
+            turnTracker = false;
+        }
+        if (journal != null){
+            gameId = journal.startGame(board.getHeight(), board.getWidth());
+        }
+        events.publish(GameEventRing.GAME_START, board.getHeight(), board.getWidth(), 0);
+        int victorNum = 0;
+        while(victorNum == 0 && !board.isFull()){
+            if(turnTracker){
+                placeStone(player1);
+                if(board.checkWin(1)){
+                    victorNum = 1;
+                }
+            }
+            else{
+                placeStone(player2);
+                if(board.checkWin(2)){
+                    victorNum = 2;
+                }
+            }
+            turnTracker = !turnTracker;
+        }
+        UI.drawBoard(board.getHighlightedSnapshot());
+        if (player2 instanceof ComputerPlayer){
+            ((ComputerPlayer) player2).shutdown();
+        }
+        if (journal != null){
+            journal.endGame(gameId, victorNum);
+        }
+        events.publish(GameEventRing.GAME_END, 0, 0, victorNum);
+        if (victorNum == 0) {
+            UI.drawTieScreen();
+        }
+        else if (victorNum == 1) {
+            UI.drawVictoryScreen(player1.getPlayerName());
+        }
+        else{
+            UI.drawDefeatScreen();
+        }
+    }
+}
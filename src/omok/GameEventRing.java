@@ -0,0 +1,193 @@
+package omok;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Broadcasts the events of a game to any number of spectators through a
+ * preallocated ring. There is one publisher, the game loop, and it never
+ * waits: it overwrites the oldest event once the ring is full. Every
+ * spectator reads through its own Cursor at its own pace; one that falls
+ * a whole ring behind skips to the oldest event still held and counts
+ * what it missed. Events are stored as primitives in parallel arrays and
+ * handed to a Handler the same way, so nothing is allocated per event.
+ * <p>
+ * Each slot carries the sequence number of the event in it, which works
+ * as a sequence lock: the publisher marks the slot as being written,
+ * fills it in and then publishes the new number, and a reader only keeps
+ * what it read if the number was the same before and after reading.
+ */
+public class GameEventRing {
+    public static final int GAME_START = 1;
+    public static final int MOVE = 2;
+    public static final int GAME_END = 3;
+    /** Default number of events held */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /** Marks a slot the publisher is writing */
+    private static final long WRITING = -1;
+
+    private final int mask;
+    /** Sequence number of the event in each slot, WRITING, or -2 before the first */
+    private final AtomicLongArray sequences;
+    private final int[] types;
+    private final int[] xs;
+    private final int[] ys;
+    private final int[] players;
+    /** Sequence number of the next event; written by the publisher only */
+    private volatile long next;
+
+    /**
+     * Receives events; the arguments are only valid during the call
+     */
+    public interface Handler {
+        /**
+         * @param sequence the number of the event, counting from 0
+         * @param type GAME_START, MOVE or GAME_END
+         * @param x GAME_START: board height, MOVE: 1-based x
+         * @param y GAME_START: board width, MOVE: 1-based y
+         * @param playerNum MOVE: the player who moved, GAME_END: the winner or 0
+         */
+        void onEvent(long sequence, int type, int x, int y, int playerNum);
+    }
+
+    public GameEventRing(){
+        this(DEFAULT_CAPACITY);
+    }
+    /**
+     * @param capacity number of events held, rounded up to a power of two
+     */
+    public GameEventRing(int capacity){
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        mask = size - 1;
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++){
+            sequences.set(i, -2);
+        }
+        types = new int[size];
+        xs = new int[size];
+        ys = new int[size];
+        players = new int[size];
+    }
+
+    /**
+     * @return the number of events the ring holds
+     */
+    public int capacity(){
+        return mask + 1;
+    }
+    /**
+     * @return the number of events published so far
+     */
+    public long getPublished(){
+        return next;
+    }
+
+    /**
+     * Publishes an event, overwriting the oldest if the ring is full.
+     * Only one thread may publish.
+     */
+    public void publish(int type, int x, int y, int playerNum){
+        long sequence = next;
+        int slot = (int) sequence & mask;
+        sequences.setOpaque(slot, WRITING);
+        VarHandle.releaseFence();
+        types[slot] = type;
+        xs[slot] = x;
+        ys[slot] = y;
+        players[slot] = playerNum;
+        sequences.setRelease(slot, sequence);
+        next = sequence + 1;
+    }
+
+    /**
+     * @return a cursor that reads the events published from now on
+     */
+    public Cursor newCursor(){
+        return new Cursor(next);
+    }
+
+    /**
+     * Starts a daemon thread that hands every event to the handler as it
+     * is published, until the thread is interrupted
+     * @param name the thread's name
+     */
+    public Thread spectate(Handler handler, String name){
+        Cursor cursor = newCursor();
+        Thread thread = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()){
+                if (cursor.poll(handler, Integer.MAX_VALUE) == 0){
+                    LockSupport.parkNanos(1000000L);
+                }
+            }
+        }, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * One spectator's position in the ring; use it from one thread at a time
+     */
+    public class Cursor {
+        private long position;
+        private long missed;
+
+        private Cursor(long position){
+            this.position = position;
+        }
+
+        /**
+         * Hands the events published since the last poll to the handler, oldest first
+         * @param max the most events to hand over
+         * @return the number of events handed over
+         */
+        public int poll(Handler handler, int max){
+            int delivered = 0;
+            while (delivered < max){
+                int slot = (int) position & mask;
+                long sequence = sequences.getAcquire(slot);
+                if (sequence == position){
+                    int type = types[slot];
+                    int x = xs[slot];
+                    int y = ys[slot];
+                    int playerNum = players[slot];
+                    VarHandle.acquireFence();
+                    if (sequences.getOpaque(slot) == position){
+                        handler.onEvent(position, type, x, y, playerNum);
+                        position++;
+                        delivered++;
+                        continue;
+                    }
+                }
+                else if (sequence != WRITING && sequence < position){
+                    // Not published yet
+                    break;
+                }
+                // Lapped by the publisher: skip to the oldest event still held
+                long oldest = next - mask;
+                if (oldest > position){
+                    missed += oldest - position;
+                    position = oldest;
+                }
+                else if (position >= next){
+                    break;
+                }
+            }
+            return delivered;
+        }
+
+        /**
+         * @return the number of the next event to read
+         */
+        public long getPosition(){
+            return position;
+        }
+        /**
+         * @return the number of events overwritten before this cursor read them
+         */
+        public long getMissed(){
+            return missed;
+        }
+    }
+}
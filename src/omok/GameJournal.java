@@ -0,0 +1,305 @@
+package omok;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary log of the games played, written so a crash loses at
+ * most the moves of the last commit. Every record is framed as
+ * <pre>
+ * int length      bytes of payload
+ * int crc         CRC32 of the payload
+ * byte type       GAME_START, MOVE or GAME_END
+ * long game       id of the game the record belongs to
+ * ...             GAME_START: short height, short width
+ *                 MOVE:       short x, short y, byte playerNum (1-based coordinates)
+ *                 GAME_END:   byte winner, 0 for none
+ * </pre>
+ * Appending only copies the record into a buffer. A background thread
+ * writes everything appended since its last pass with one write and one
+ * fsync (group commit), so any number of games share each fsync and a
+ * move never waits for the disk. {@link #sync()} waits until what was
+ * appended so far is on disk. JournalReplay reads the log back.
+ * <p>
+ * Opening a journal cuts off a record left torn by a crash, so the
+ * records appended after it can be replayed. The file is checked a window
+ * at a time, so a journal can grow past what one mapping can hold.
+ */
+public class GameJournal implements AutoCloseable {
+    public static final byte GAME_START = 1;
+    public static final byte MOVE = 2;
+    public static final byte GAME_END = 3;
+    /** Bytes before the payload: length and checksum */
+    public static final int HEADER_BYTES = 8;
+    /** Bytes of the file mapped at a time when it is read back, so a journal may outgrow one mapping */
+    static final int WINDOW_BYTES = 64 * 1024 * 1024;
+
+    private static final int INITIAL_BUFFER_BYTES = 64 * 1024;
+    private static final int MAX_PAYLOAD_BYTES = 1 + 8 + 5;
+
+    private final FileChannel channel;
+    private final Thread flusher;
+    private final CRC32 crc = new CRC32();
+    private final byte[] payload = new byte[MAX_PAYLOAD_BYTES];
+    private final AtomicLong nextGame;
+
+    /** Records appended but not yet handed to the flusher, guarded by this */
+    private ByteBuffer filling = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+    /** Records being written by the flusher */
+    private ByteBuffer flushing = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+    /** Records appended so far, guarded by this */
+    private long appended;
+    /** Records known to be on disk, guarded by this */
+    private long durable;
+    private boolean closed;
+    private IOException failure;
+
+    /**
+     * Opens a journal, appending to the file if it already exists. The
+     * file is first truncated after its last whole record.
+     * @param file the journal file
+     */
+    public GameJournal(Path file) throws IOException{
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try{
+            long valid = validLength(channel, WINDOW_BYTES);
+            channel.truncate(valid);
+            channel.position(valid);
+        }
+        catch (IOException e){
+            channel.close();
+            throw e;
+        }
+        // Ids start from the clock so games of earlier runs keep theirs
+        nextGame = new AtomicLong(System.currentTimeMillis() << 16);
+        flusher = new Thread(this::flushLoop, "omok-journal");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Records the start of a game
+     * @return the id to record the game's moves under
+     */
+    public long startGame(int height, int width){
+        long game = nextGame.getAndIncrement();
+        synchronized (this){
+            int length = begin(GAME_START, game);
+            length = putShort(length, height);
+            length = putShort(length, width);
+            append(length);
+        }
+        return game;
+    }
+    /**
+     * Records a stone placed in a game
+     * @param x 1-based x coordinate, as given to Board.placeStone
+     * @param y 1-based y coordinate, as given to Board.placeStone
+     */
+    public void recordMove(long game, int x, int y, int playerNum){
+        synchronized (this){
+            int length = begin(MOVE, game);
+            length = putShort(length, x);
+            length = putShort(length, y);
+            payload[length++] = (byte) playerNum;
+            append(length);
+        }
+    }
+    /**
+     * Records the end of a game
+     * @param winner the winning player's number, or 0 for none
+     */
+    public void endGame(long game, int winner){
+        synchronized (this){
+            int length = begin(GAME_END, game);
+            payload[length++] = (byte) winner;
+            append(length);
+        }
+    }
+
+    /**
+     * Waits until every record appended so far is on disk
+     */
+    public void sync() throws IOException{
+        synchronized (this){
+            long target = appended;
+            try{
+                while (durable < target && failure == null){
+                    notifyAll();
+                    wait();
+                }
+            }
+            catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for the journal", e);
+            }
+            if (failure != null){
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * Writes what is left and closes the file
+     */
+    @Override
+    public void close() throws IOException{
+        synchronized (this){
+            closed = true;
+            notifyAll();
+        }
+        try{
+            flusher.join();
+        }
+        catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (failure != null){
+            throw failure;
+        }
+    }
+
+    /**
+     * @return the length of the records of the file up to the first one
+     *         that is cut short or fails its checksum
+     */
+    static long validLength(FileChannel channel, int windowBytes) throws IOException{
+        long size = channel.size();
+        CRC32 crc = new CRC32();
+        long offset = 0;
+        while (true){
+            ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(windowBytes, size - offset));
+            int length;
+            while ((length = recordLength(bytes, crc)) > 0){
+                bytes.position(bytes.position() + length);
+            }
+            if (offset + bytes.limit() == size || bytes.position() == 0){
+                // A record that does not check out in a whole window is where the log ends
+                return offset + bytes.position();
+            }
+            // The window ends inside a record: map again from its start
+            offset += bytes.position();
+        }
+    }
+
+    /**
+     * Checks the record at the buffer's position, leaving the position where it was
+     * @return the bytes of the record including its header, or -1 if it is cut short or fails its checksum
+     */
+    static int recordLength(ByteBuffer bytes, CRC32 crc){
+        int start = bytes.position();
+        if (bytes.remaining() < HEADER_BYTES){
+            return -1;
+        }
+        int length = bytes.getInt(start);
+        int checksum = bytes.getInt(start + 4);
+        if (length < 9 || length > bytes.remaining() - HEADER_BYTES){
+            return -1;
+        }
+        ByteBuffer payload = bytes.duplicate();
+        payload.position(start + HEADER_BYTES);
+        payload.limit(start + HEADER_BYTES + length);
+        crc.reset();
+        crc.update(payload);
+        return (int) crc.getValue() == checksum ? HEADER_BYTES + length : -1;
+    }
+
+    private int begin(byte type, long game){
+        if (closed){
+            throw new IllegalStateException("The journal is closed");
+        }
+        if (failure != null){
+            throw new IllegalStateException("The journal could not be written", failure);
+        }
+        payload[0] = type;
+        for (int i = 0; i < 8; i++){
+            payload[1 + i] = (byte) (game >>> (56 - 8 * i));
+        }
+        return 9;
+    }
+    private int putShort(int length, int value){
+        payload[length] = (byte) (value >>> 8);
+        payload[length + 1] = (byte) value;
+        return length + 2;
+    }
+
+    /** Frames the payload into the filling buffer, holding the lock */
+    private void append(int length){
+        if (filling.remaining() < HEADER_BYTES + length){
+            ByteBuffer bigger = ByteBuffer.allocate(filling.capacity() * 2);
+            filling.flip();
+            bigger.put(filling);
+            filling = bigger;
+        }
+        crc.reset();
+        crc.update(payload, 0, length);
+        filling.putInt(length);
+        filling.putInt((int) crc.getValue());
+        filling.put(payload, 0, length);
+        if (appended++ == durable){
+            // The flusher may be idle
+            notifyAll();
+        }
+    }
+
+    private void flushLoop(){
+        while (true){
+            long batch;
+            synchronized (this){
+                while (filling.position() == 0 && !closed){
+                    try{
+                        wait();
+                    }
+                    catch (InterruptedException e){
+                        return;
+                    }
+                }
+                if (filling.position() == 0){
+                    return;
+                }
+                ByteBuffer swap = flushing;
+                flushing = filling;
+                filling = swap;
+                filling.clear();
+                batch = appended;
+            }
+            try{
+                flushing.flip();
+                while (flushing.hasRemaining()){
+                    channel.write(flushing);
+                }
+                channel.force(false);
+                flushing.clear();
+            }
+            catch (IOException e){
+                synchronized (this){
+                    failure = e;
+                    notifyAll();
+                }
+                return;
+            }
+            synchronized (this){
+                durable = batch;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * @return the number of records appended since the journal was opened
+     */
+    public synchronized long getAppended(){
+        return appended;
+    }
+    /**
+     * @return the number of those records known to be on disk
+     */
+    public synchronized long getDurable(){
+        return durable;
+    }
+}
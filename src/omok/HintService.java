@@ -0,0 +1,141 @@
+package omok;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Suggests moves for the secret guide mode without holding up the game.
+ * A request is searched on a background thread and its future completes
+ * when the hint is ready. Hints are cached by the canonical hash of their
+ * position (see Symmetry), so a position seen before, by any move order,
+ * rotation or reflection, is answered at once. Only the latest request is
+ * searched: an older one is cancelled, and cancelling a request, here or
+ * by the caller, also stops its search if it is running.
+ */
+public class HintService implements AutoCloseable {
+    /** Number of positions whose hints are remembered */
+    public static final int CACHE_ENTRIES = 4096;
+
+    private final SearchEngine engine;
+    private final ExecutorService worker;
+    /** Canonical cell of the hint, by position key, least recently used first */
+    private final Map<Long, Integer> cache = new LinkedHashMap<>(16, 0.75f, true){
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Integer> eldest){
+            return size() > CACHE_ENTRIES;
+        }
+    };
+    private volatile CompletableFuture<int[]> latest;
+    private int cacheHits;
+    private int searches;
+
+    public HintService(){
+        this(new SearchEngine(ComputerPlayer.DEFAULT_TIME_BUDGET_MILLIS));
+    }
+    /**
+     * @param engine the engine to search hints with, used by the service alone
+     */
+    public HintService(SearchEngine engine){
+        this.engine = engine;
+        worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "omokfish-hints");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts working out a hint
+     * @param board the position, which is copied
+     * @param playerNum the player to move
+     * @return completes with the 1-based x, y coordinates to play, or null if the board is full
+     */
+    public CompletableFuture<int[]> request(int[][] board, int playerNum){
+        Board position = new Board(board);
+        int height = position.getHeight();
+        int width = position.getWidth();
+        long[] hashes = new long[Symmetry.COUNT];
+        int symmetry = Symmetry.canonicalSymmetry(position, hashes);
+        long key = hashes[symmetry] ^ Zobrist.sideKey(playerNum);
+        Integer cached;
+        synchronized (cache){
+            cached = cache.get(key);
+        }
+        if (cached != null){
+            synchronized (this){
+                cacheHits++;
+            }
+            int cell = Symmetry.invert(symmetry, cached / width, cached % width, height, width);
+            return CompletableFuture.completedFuture(new int[] {cell / width + 1, cell % width + 1});
+        }
+        CompletableFuture<int[]> hint = new CompletableFuture<>();
+        AtomicBoolean stop = new AtomicBoolean();
+        hint.whenComplete((cell, failure) -> {
+            if (hint.isCancelled()){
+                stop.set(true);
+            }
+        });
+        CompletableFuture<int[]> previous = latest;
+        latest = hint;
+        if (previous != null){
+            previous.cancel(false);
+        }
+        worker.execute(() -> {
+            if (hint != latest || hint.isDone()){
+                hint.cancel(false);
+                return;
+            }
+            try{
+                int cell = engine.searchMove(position, playerNum, stop);
+                synchronized (this){
+                    searches++;
+                }
+                if (cell < 0){
+                    hint.complete(null);
+                    return;
+                }
+                if (stop.get()){
+                    // Cut short, not worth remembering
+                    return;
+                }
+                synchronized (cache){
+                    cache.put(key, Symmetry.apply(symmetry, cell / width, cell % width, height, width));
+                }
+                hint.complete(new int[] {cell / width + 1, cell % width + 1});
+            }
+            catch (RuntimeException e){
+                hint.completeExceptionally(e);
+            }
+        });
+        return hint;
+    }
+
+    /**
+     * @return the number of requests answered from the cache
+     */
+    public synchronized int getCacheHits(){
+        return cacheHits;
+    }
+    /**
+     * @return the number of positions searched
+     */
+    public synchronized int getSearches(){
+        return searches;
+    }
+
+    /**
+     * Cancels the hint being worked out and stops the background thread
+     */
+    @Override
+    public void close(){
+        CompletableFuture<int[]> pending = latest;
+        if (pending != null){
+            pending.cancel(false);
+        }
+        worker.shutdownNow();
+        engine.shutdown();
+    }
+}
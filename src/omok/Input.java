@@ -1,12 +1,21 @@
+package omok;
+import java.io.InputStream;
 import java.util.Scanner;
 
 /**
- * Singleton input class to avoid Scanner.close() closing System.in
+ * Singleton input class to avoid Scanner.close() closing System.in.
+ * Sessions that read from their own stream create their own Input.
  */
 public final class Input {
-    private static final Input instance = new Input();
-    private Input(){}
-    private Scanner inputScanner = new Scanner(System.in);
+    private static final Input instance = new Input(System.in);
+    private final Scanner inputScanner;
+
+    /**
+     * @param in the stream to read user input from
+     */
+    public Input(InputStream in){
+        inputScanner = new Scanner(in);
+    }
 
     /**
      * Provides the Input instance
@@ -0,0 +1,286 @@
+package omok;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Reads a GameJournal back into games. Reading stops at the first record
+ * that is cut short or fails its checksum, which is where a crash left
+ * the log; everything before it is replayed.
+ *
+ * From the command line,
+ * <pre>
+ * java omok.JournalReplay journal.bin                 lists the games
+ * java omok.JournalReplay journal.bin game [moves]    shows a game after all or some of its moves
+ * </pre>
+ */
+public class JournalReplay {
+    /**
+     * A game as recorded in the journal
+     */
+    public static class Game {
+        private final long id;
+        private final int height;
+        private final int width;
+        /** x, y and player number of each move, one after another */
+        private int[] moves = new int[3 * 16];
+        private int moveCount;
+        private int winner = -1;
+
+        Game(long id, int height, int width){
+            this.id = id;
+            this.height = height;
+            this.width = width;
+        }
+        public long getId(){
+            return id;
+        }
+        public int getHeight(){
+            return height;
+        }
+        public int getWidth(){
+            return width;
+        }
+        /**
+         * @return the number of moves recorded
+         */
+        public int getMoveCount(){
+            return moveCount;
+        }
+        /**
+         * @return the move as 1-based x, y and player number
+         */
+        public int[] getMove(int n){
+            return Arrays.copyOfRange(moves, 3 * n, 3 * n + 3);
+        }
+        /**
+         * @return the winning player's number, 0 for none, or -1 if the game never ended
+         */
+        public int getWinner(){
+            return winner;
+        }
+        /**
+         * Rebuilds the board as it stood after the first moves of the game
+         * @param count number of moves to play, at most getMoveCount()
+         */
+        public Board boardAfter(int count){
+            Board board = new Board(height, width);
+            for (int n = 0; n < Math.min(count, moveCount); n++){
+                board.placeStone(moves[3 * n], moves[3 * n + 1], moves[3 * n + 2]);
+            }
+            return board;
+        }
+        void setWinner(int winner){
+            this.winner = winner;
+        }
+        void addMove(int x, int y, int playerNum){
+            if (3 * moveCount == moves.length){
+                moves = Arrays.copyOf(moves, moves.length * 2);
+            }
+            moves[3 * moveCount] = x;
+            moves[3 * moveCount + 1] = y;
+            moves[3 * moveCount + 2] = playerNum;
+            moveCount++;
+        }
+    }
+
+    /**
+     * Steps through the records of a journal in the order they were
+     * written, straight from the file mapped one window at a time, so a
+     * journal of any length is read holding one window and one record at a
+     * time. The accessors describe the current record; those that do not
+     * apply to its type return 0.
+     */
+    public static class Records {
+        private final Path file;
+        private final long size;
+        private final int windowBytes;
+        private final CRC32 crc = new CRC32();
+        /** File offset of the window's first byte */
+        private long offset;
+        private ByteBuffer bytes;
+        private byte type;
+        private long game;
+        private int first;
+        private int second;
+        private int third;
+
+        private Records(Path file, int windowBytes) throws IOException{
+            this.file = file;
+            this.windowBytes = windowBytes;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+                size = channel.size();
+                bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(windowBytes, size));
+            }
+        }
+
+        /**
+         * Moves on to the next record
+         * @return false at the end of the journal or at the first record cut short or failing its checksum
+         * @throws UncheckedIOException if the next window of the file cannot be mapped
+         */
+        public boolean next(){
+            int length = GameJournal.recordLength(bytes, crc);
+            if (length <= 0 && bytes.position() > 0 && offset + bytes.limit() < size){
+                // The window ends inside a record: map again from its start
+                remap(offset + bytes.position());
+                length = GameJournal.recordLength(bytes, crc);
+            }
+            if (length <= 0){
+                return false;
+            }
+            ByteBuffer payload = bytes.slice();
+            payload.position(GameJournal.HEADER_BYTES);
+            payload.limit(length);
+            bytes.position(bytes.position() + length);
+
+            type = payload.get();
+            game = payload.getLong();
+            first = 0;
+            second = 0;
+            third = 0;
+            if (type == GameJournal.GAME_START){
+                first = payload.getShort();
+                second = payload.getShort();
+            }
+            else if (type == GameJournal.MOVE){
+                first = payload.getShort();
+                second = payload.getShort();
+                third = payload.get();
+            }
+            else if (type == GameJournal.GAME_END){
+                first = payload.get();
+            }
+            return true;
+        }
+
+        private void remap(long start){
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+                bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowBytes, size - start));
+                offset = start;
+            }
+            catch (IOException e){
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * @return GAME_START, MOVE or GAME_END
+         */
+        public byte getType(){
+            return type;
+        }
+        public long getGame(){
+            return game;
+        }
+        /**
+         * @return GAME_START: the board height
+         */
+        public int getHeight(){
+            return type == GameJournal.GAME_START ? first : 0;
+        }
+        /**
+         * @return GAME_START: the board width
+         */
+        public int getWidth(){
+            return type == GameJournal.GAME_START ? second : 0;
+        }
+        /**
+         * @return MOVE: the 1-based x coordinate
+         */
+        public int getX(){
+            return type == GameJournal.MOVE ? first : 0;
+        }
+        /**
+         * @return MOVE: the 1-based y coordinate
+         */
+        public int getY(){
+            return type == GameJournal.MOVE ? second : 0;
+        }
+        /**
+         * @return MOVE: the player who moved
+         */
+        public int getPlayerNum(){
+            return type == GameJournal.MOVE ? third : 0;
+        }
+        /**
+         * @return GAME_END: the winning player's number, 0 for none
+         */
+        public int getWinner(){
+            return type == GameJournal.GAME_END ? first : 0;
+        }
+    }
+
+    /**
+     * Opens a journal for reading record by record
+     * @param file the journal file
+     */
+    public static Records records(Path file) throws IOException{
+        return records(file, GameJournal.WINDOW_BYTES);
+    }
+    static Records records(Path file, int windowBytes) throws IOException{
+        return new Records(file, windowBytes);
+    }
+
+    /**
+     * Reads every game in a journal, in the order the games started.
+     * Moves of games whose start was lost are skipped.
+     * @param file the journal file
+     */
+    public static List<Game> read(Path file) throws IOException{
+        Map<Long, Game> games = new LinkedHashMap<>();
+        Records records = records(file);
+        while (records.next()){
+            if (records.getType() == GameJournal.GAME_START){
+                games.put(records.getGame(), new Game(records.getGame(), records.getHeight(), records.getWidth()));
+                continue;
+            }
+            Game game = games.get(records.getGame());
+            if (game == null){
+                continue;
+            }
+            if (records.getType() == GameJournal.MOVE){
+                game.addMove(records.getX(), records.getY(), records.getPlayerNum());
+            }
+            else if (records.getType() == GameJournal.GAME_END){
+                game.setWinner(records.getWinner());
+            }
+        }
+        return new ArrayList<>(games.values());
+    }
+
+    public static void main(String[] args) throws IOException{
+        if (args.length == 0){
+            System.out.println("Usage: JournalReplay journal [game [moves]]");
+            return;
+        }
+        List<Game> games = read(Paths.get(args[0]));
+        if (args.length == 1){
+            for (Game game : games){
+                System.out.println(game.getId() + ": " + game.getHeight() + "x" + game.getWidth() + ", "
+                        + game.getMoveCount() + " moves, "
+                        + (game.getWinner() < 0 ? "unfinished" : game.getWinner() == 0 ? "no winner" : "won by player " + game.getWinner()));
+            }
+            return;
+        }
+        long id = Long.parseLong(args[1]);
+        for (Game game : games){
+            if (game.getId() == id){
+                int moves = args.length > 2 ? Integer.parseInt(args[2]) : game.getMoveCount();
+                new UserInterface().drawBoard(game.boardAfter(moves).getBoard());
+                return;
+            }
+        }
+        System.out.println("No game " + id + " in " + args[0]);
+    }
+}
@@ -1,3 +1,5 @@
+package omok;
+
 public class LocalPlayer implements Playable {
     private String playerName;
     private int playerNum;
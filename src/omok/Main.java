@@ -0,0 +1,31 @@
+package omok;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.function.IntFunction;
+
+public class Main {
+    /**
+     * @param args optionally the file to journal every game to, see JournalReplay.
+     * An opening book built by OpeningBook can be given with -Domok.book=file
+     */
+    public static void main(String[] args) throws IOException {
+        UserInterface ui = new UserInterface();
+        String bookFile = System.getProperty("omok.book");
+        OpeningBook book = bookFile != null ? OpeningBook.open(Paths.get(bookFile)) : null;
+        IntFunction<Playable> computer = playerNum -> {
+            ComputerPlayer player = new ComputerPlayer(playerNum, ui);
+            player.setOpeningBook(book);
+            // Think while the human does
+            player.setPondering(true);
+            return player;
+        };
+        if (args.length > 0) {
+            try (GameJournal journal = new GameJournal(Paths.get(args[0]))) {
+                new GameController(ui, computer, journal).start();
+            }
+            return;
+        }
+        GameController Game = new GameController(ui, computer);
+        Game.start();
+    }
+}
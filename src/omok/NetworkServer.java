@@ -0,0 +1,265 @@
+package omok;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Serves games to remote players over TCP. A single selector thread
+ * accepts clients, reads their lines and writes what their sessions send,
+ * so no thread is ever blocked on a socket. By default every client gets
+ * its own session in a SessionManager, played through a RemoteUserInterface.
+ *
+ * The protocol is plain text, one message per line. The server sends
+ * <pre>
+ * MODE?                 ask for a game mode, answered with 1, 2 or 3
+ * NAME? n               ask for the name of player n, answered with the name
+ * MOVE? name            ask for the named player's move, answered with "x y"
+ * BOARD h w cells       the board: h rows of w cells, one digit per cell, row by row
+ * MSG text              something to show the player
+ * WIN name              the named player has won
+ * LOSE                  the computer has won
+ * DRAW                  the board is full and no one has won
+ * </pre>
+ * and closes the connection when the client picks mode 3.
+ * <p>
+ * Games are played by blocking GameControllers, so every session still
+ * needs a thread of its own (a virtual one on Java 21+, see
+ * SessionManager); only the sockets are served by the selector. What a
+ * client can make a session hold is bounded: a client that sends more than
+ * MAX_INBOUND_LINES lines ahead of its game, lets more than
+ * MAX_OUTBOUND_BYTES pile up unread, or stays silent for
+ * IDLE_TIMEOUT_MILLIS when asked something is disconnected. If the
+ * selector itself fails, the server logs the error, disconnects every
+ * client and stops; see {@link #getFailure()}.
+ */
+public class NetworkServer implements AutoCloseable {
+    /** Longest line a client may send */
+    public static final int MAX_LINE = 256;
+    /** Most lines a client may send before its session reads them */
+    public static final int MAX_INBOUND_LINES = 64;
+    /** Most bytes that may wait to be written to a client */
+    public static final int MAX_OUTBOUND_BYTES = 64 * 1024;
+    /** Longest a session waits for a client's answer */
+    public static final long IDLE_TIMEOUT_MILLIS = 10 * 60 * 1000;
+
+    private static final System.Logger LOG = System.getLogger(NetworkServer.class.getName());
+
+    private final Consumer<RemoteConnection> onConnect;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final Thread thread;
+    /** Connections with lines to write or waiting to close, handed over to the selector thread */
+    private final Queue<RemoteConnection> pending = new ConcurrentLinkedQueue<>();
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(4096);
+    private volatile boolean running = true;
+    private volatile IOException failure;
+
+    /**
+     * Starts listening on every local address and serving clients
+     * @param port the port to listen on, 0 for any free port
+     * @param sessions runs the games of the clients
+     */
+    public NetworkServer(int port, SessionManager sessions) throws IOException{
+        this(port, connection -> sessions.open(new RemoteUserInterface(connection), connection::close));
+    }
+    /**
+     * Starts listening on every local address and hands each client over
+     * as it connects, for example to pair clients up as RemotePlayers
+     * @param port the port to listen on, 0 for any free port
+     * @param onConnect called on the selector thread for each new client; must not block
+     */
+    public NetworkServer(int port, Consumer<RemoteConnection> onConnect) throws IOException{
+        this.onConnect = onConnect;
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port), 1024);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        thread = new Thread(this::run, "omok-network");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * @return the port the server listens on
+     */
+    public int getPort(){
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * @return the error that stopped the selector thread, or null while the server runs or after a normal close
+     */
+    public IOException getFailure(){
+        return failure;
+    }
+
+    /**
+     * Stops serving and disconnects every client. Their sessions end with
+     * an exception the next time they wait for input.
+     */
+    @Override
+    public void close(){
+        running = false;
+        selector.wakeup();
+        try{
+            thread.join();
+        }
+        catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+        for (SelectionKey key : selector.keys()){
+            if (key.attachment() instanceof RemoteConnection){
+                disconnect(key, (RemoteConnection) key.attachment());
+            }
+        }
+        try{
+            serverChannel.close();
+            selector.close();
+        }
+        catch (IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Has the selector thread drop a client, from any thread */
+    void kick(RemoteConnection connection){
+        connection.kicked = true;
+        wantsWrite(connection);
+    }
+
+    void wantsWrite(RemoteConnection connection){
+        pending.add(connection);
+        selector.wakeup();
+    }
+
+    private void run(){
+        try{
+            serve();
+        }
+        catch (IOException e){
+            failure = e;
+            LOG.log(System.Logger.Level.ERROR, "Network server stopped, disconnecting every client", e);
+            running = false;
+            for (SelectionKey key : selector.keys()){
+                if (key.attachment() instanceof RemoteConnection){
+                    disconnect(key, (RemoteConnection) key.attachment());
+                }
+            }
+            try{
+                serverChannel.close();
+            }
+            catch (IOException closing){
+                e.addSuppressed(closing);
+            }
+        }
+    }
+
+    private void serve() throws IOException{
+        while (running){
+            selector.select();
+            RemoteConnection connection;
+            while ((connection = pending.poll()) != null){
+                SelectionKey key = connection.channel.keyFor(selector);
+                if (key != null && key.isValid()){
+                    if (connection.kicked){
+                        disconnect(key, connection);
+                    }
+                    else{
+                        key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                    }
+                }
+            }
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()){
+                SelectionKey key = keys.next();
+                keys.remove();
+                if (!key.isValid()){
+                    continue;
+                }
+                if (key.isAcceptable()){
+                    accept();
+                    continue;
+                }
+                connection = (RemoteConnection) key.attachment();
+                try{
+                    if (key.isReadable()){
+                        read(key, connection);
+                    }
+                    if (key.isValid() && key.isWritable()){
+                        write(key, connection);
+                    }
+                }
+                catch (IOException e){
+                    disconnect(key, connection);
+                }
+            }
+        }
+    }
+
+    private void accept(){
+        SocketChannel channel;
+        try{
+            while ((channel = serverChannel.accept()) != null){
+                channel.configureBlocking(false);
+                RemoteConnection connection = new RemoteConnection(this, channel);
+                channel.register(selector, SelectionKey.OP_READ, connection);
+                onConnect.accept(connection);
+            }
+        }
+        catch (IOException e){
+            // The client gave up before it was accepted
+        }
+    }
+
+    private void read(SelectionKey key, RemoteConnection connection) throws IOException{
+        readBuffer.clear();
+        int read = connection.channel.read(readBuffer);
+        if (read < 0){
+            disconnect(key, connection);
+            return;
+        }
+        readBuffer.flip();
+        if (!connection.received(readBuffer)){
+            disconnect(key, connection);
+        }
+    }
+
+    private void write(SelectionKey key, RemoteConnection connection) throws IOException{
+        ByteBuffer buffer;
+        while ((buffer = connection.outbound.peek()) != null){
+            connection.wrote(connection.channel.write(buffer));
+            if (buffer.hasRemaining()){
+                // The socket is full, carry on when it is writable again
+                return;
+            }
+            connection.outbound.poll();
+        }
+        if (connection.closing){
+            disconnect(key, connection);
+        }
+        else{
+            key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    private void disconnect(SelectionKey key, RemoteConnection connection){
+        key.cancel();
+        try{
+            connection.channel.close();
+        }
+        catch (IOException e){
+            // Already gone
+        }
+        connection.disconnected();
+    }
+}
@@ -0,0 +1,351 @@
+package omok;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Opening moves read straight from a memory-mapped file. Positions are
+ * keyed by their canonical hash (see Symmetry) and the side to move, and
+ * their moves are stored as seen from the canonical orientation, so one
+ * entry serves every rotation and reflection of an opening. A book holds
+ * the openings of one board size, as the same key means different
+ * positions on boards of different sizes. The file is
+ * <pre>
+ * int magic, int version, int height, int width, int positions, int moves
+ * positions times, sorted by key: long key, int first move, int move count
+ * moves times: int cell, int weight
+ * </pre>
+ * A probe binary searches the mapped positions and picks one of their
+ * moves with probability proportional to its weight. Nothing is copied
+ * onto the heap, and a probe allocates nothing, so one book can be
+ * shared by many players; each probing thread needs its own OpeningBook
+ * instance over the same file, since the probe scratch space is not shared.
+ */
+public class OpeningBook {
+    /** Moves of games are only booked this deep by default */
+    public static final int DEFAULT_DEPTH = 12;
+
+    private static final int MAGIC = 0x4F4D4F42;
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 24;
+    private static final int POSITION_BYTES = 16;
+    private static final int MOVE_BYTES = 8;
+
+    private final MappedByteBuffer file;
+    private final int height;
+    private final int width;
+    private final int positions;
+    private final int movesStart;
+    private final Random random;
+    private final long[] hashes = new long[Symmetry.COUNT];
+
+    private OpeningBook(MappedByteBuffer file, int height, int width, int positions, Random random){
+        this.file = file;
+        this.height = height;
+        this.width = width;
+        this.positions = positions;
+        this.random = random;
+        movesStart = HEADER_BYTES + positions * POSITION_BYTES;
+    }
+
+    /**
+     * Maps a book file written by a Builder
+     */
+    public static OpeningBook open(Path path) throws IOException{
+        return open(path, new Random());
+    }
+    /**
+     * @param random picks among the weighted moves, seed it for repeatable games
+     */
+    public static OpeningBook open(Path path, Random random) throws IOException{
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+            if (channel.size() > Integer.MAX_VALUE){
+                throw new IOException(path + " is too large to map at once");
+            }
+            MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (file.limit() < HEADER_BYTES || file.getInt(0) != MAGIC || file.getInt(4) != VERSION){
+                throw new IOException(path + " is not an opening book");
+            }
+            int height = file.getInt(8);
+            int width = file.getInt(12);
+            int positions = file.getInt(16);
+            int moves = file.getInt(20);
+            if ((long) HEADER_BYTES + (long) positions * POSITION_BYTES + (long) moves * MOVE_BYTES != file.limit()){
+                throw new IOException(path + " is truncated");
+            }
+            return new OpeningBook(file, height, width, positions, random);
+        }
+    }
+
+    /**
+     * @return the number of positions in the book
+     */
+    public int size(){
+        return positions;
+    }
+    /**
+     * @return the height of the board the book is for
+     */
+    public int getHeight(){
+        return height;
+    }
+    /**
+     * @return the width of the board the book is for
+     */
+    public int getWidth(){
+        return width;
+    }
+
+    /**
+     * Looks the position up and picks one of its book moves
+     * @param board the position, which is not changed
+     * @param playerNum the player to move
+     * @return the 0-based cell index (row * width + column) to play, or -1 if the position
+     *         is not in the book or the board is not the size the book is for
+     */
+    public int probe(Board board, int playerNum){
+        if (board.getHeight() != height || board.getWidth() != width){
+            return -1;
+        }
+        int symmetry = Symmetry.canonicalSymmetry(board, hashes);
+        long key = hashes[symmetry] ^ Zobrist.sideKey(playerNum);
+        int low = 0;
+        int high = positions;
+        while (low < high){
+            int middle = (low + high) >>> 1;
+            if (file.getLong(HEADER_BYTES + middle * POSITION_BYTES) < key){
+                low = middle + 1;
+            }
+            else{
+                high = middle;
+            }
+        }
+        int entry = HEADER_BYTES + low * POSITION_BYTES;
+        if (low == positions || file.getLong(entry) != key){
+            return -1;
+        }
+        int first = file.getInt(entry + 8);
+        int count = file.getInt(entry + 12);
+        long total = 0;
+        for (int n = 0; n < count; n++){
+            total += file.getInt(movesStart + (first + n) * MOVE_BYTES + 4);
+        }
+        long pick = (long) (random.nextDouble() * total);
+        for (int n = 0; n < count; n++){
+            int move = movesStart + (first + n) * MOVE_BYTES;
+            pick -= file.getInt(move + 4);
+            if (pick < 0 || n == count - 1){
+                int cell = file.getInt(move);
+                cell = Symmetry.invert(symmetry, cell / width, cell % width, height, width);
+                // A hash collision could point at an occupied cell
+                return board.getBoard()[cell / width][cell % width] == 0 ? cell : -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Collects moves from games and writes them as a book. Every move of a
+     * game within the book depth counts towards the position it was played
+     * in: twice if its player went on to win, once if no one did, not at
+     * all if its player lost. All games must be played on one board size,
+     * given up front or taken from the first game.
+     */
+    public static class Builder {
+        private final int depth;
+        private int height;
+        private int width;
+        /** Weight of each canonical cell, by position key */
+        private final Map<Long, Map<Integer, Integer>> book = new HashMap<>();
+        private final long[] symmetric = new long[Symmetry.COUNT];
+
+        public Builder(){
+            this(DEFAULT_DEPTH);
+        }
+        /**
+         * @param depth number of moves at the start of each game to book
+         */
+        public Builder(int depth){
+            this(depth, 0, 0);
+        }
+        /**
+         * @param depth number of moves at the start of each game to book
+         * @param height height of the board the games are played on
+         * @param width width of the board the games are played on
+         */
+        public Builder(int depth, int height, int width){
+            this.depth = depth;
+            this.height = height;
+            this.width = width;
+        }
+
+        /**
+         * Books the opening moves of a recorded game
+         * @throws IllegalArgumentException if the game is played on another board size than the book
+         */
+        public Builder add(JournalReplay.Game game){
+            if (height == 0 && width == 0){
+                height = game.getHeight();
+                width = game.getWidth();
+            }
+            if (game.getHeight() != height || game.getWidth() != width){
+                throw new IllegalArgumentException("Game " + game.getId() + " is played on " + game.getHeight() + "x"
+                        + game.getWidth() + ", the book is for " + height + "x" + width);
+            }
+            Arrays.fill(symmetric, 0);
+            for (int n = 0; n < Math.min(depth, game.getMoveCount()); n++){
+                int[] move = game.getMove(n);
+                int playerNum = move[2];
+                int weight = game.getWinner() == playerNum ? 2 : game.getWinner() <= 0 ? 1 : 0;
+                int symmetry = Symmetry.smallest(symmetric, height, width);
+                if (weight > 0){
+                    long key = symmetric[symmetry] ^ Zobrist.sideKey(playerNum);
+                    int cell = Symmetry.apply(symmetry, move[0] - 1, move[1] - 1, height, width);
+                    book.computeIfAbsent(key, k -> new HashMap<>()).merge(cell, weight, Integer::sum);
+                }
+                for (int s = 0; s < Symmetry.COUNT; s++){
+                    if (Symmetry.fits(s, height, width)){
+                        symmetric[s] ^= Zobrist.key(Symmetry.apply(s, move[0] - 1, move[1] - 1, height, width), playerNum);
+                    }
+                }
+            }
+            return this;
+        }
+        /**
+         * Books the opening moves of every game
+         */
+        public Builder addAll(List<JournalReplay.Game> games){
+            for (JournalReplay.Game game : games){
+                add(game);
+            }
+            return this;
+        }
+
+        /**
+         * Plays games between two engines and books their openings. Each game
+         * starts from two random stones near the centre so the games differ.
+         * @param games number of games to play
+         * @param boardSize rows and columns of the board
+         * @param timeBudgetMillis thinking time per move
+         * @param seed seed for the random openings
+         */
+        public Builder addSelfPlay(int games, int boardSize, long timeBudgetMillis, long seed){
+            Random random = new Random(seed);
+            SearchEngine engine = new SearchEngine(timeBudgetMillis);
+            for (int g = 0; g < games; g++){
+                JournalReplay.Game game = new JournalReplay.Game(g, boardSize, boardSize);
+                Board board = new Board(boardSize, boardSize);
+                int playerNum = 1;
+                int winner = 0;
+                while (board.getStoneCount() < boardSize * boardSize && game.getMoveCount() < depth){
+                    int x;
+                    int y;
+                    if (game.getMoveCount() < 2){
+                        x = boardSize / 2 + random.nextInt(3);
+                        y = boardSize / 2 + random.nextInt(3);
+                        if (!board.placeStone(x, y, playerNum)){
+                            continue;
+                        }
+                    }
+                    else{
+                        int move = engine.searchMove(board, playerNum);
+                        x = move / boardSize + 1;
+                        y = move % boardSize + 1;
+                        board.placeStone(x, y, playerNum);
+                    }
+                    game.addMove(x, y, playerNum);
+                    if (board.isWinningStone(x, y)){
+                        winner = playerNum;
+                        break;
+                    }
+                    playerNum = 3 - playerNum;
+                }
+                if (winner == 0){
+                    // Judge unfinished games by the engine's view of the last position
+                    engine.searchMove(board, playerNum);
+                    int score = engine.getLastScore();
+                    winner = score > 0 ? playerNum : score < 0 ? 3 - playerNum : 0;
+                }
+                game.setWinner(winner);
+                add(game);
+            }
+            engine.shutdown();
+            return this;
+        }
+
+        /**
+         * Writes the book, positions sorted by key
+         */
+        public void write(Path path) throws IOException{
+            TreeMap<Long, Map<Integer, Integer>> sorted = new TreeMap<>(book);
+            int moves = 0;
+            for (Map<Integer, Integer> cells : sorted.values()){
+                moves += cells.size();
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))){
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(height);
+                out.writeInt(width);
+                out.writeInt(sorted.size());
+                out.writeInt(moves);
+                int first = 0;
+                for (Map.Entry<Long, Map<Integer, Integer>> position : sorted.entrySet()){
+                    out.writeLong(position.getKey());
+                    out.writeInt(first);
+                    out.writeInt(position.getValue().size());
+                    first += position.getValue().size();
+                }
+                for (Map<Integer, Integer> cells : sorted.values()){
+                    List<Map.Entry<Integer, Integer>> entries = new ArrayList<>(cells.entrySet());
+                    entries.sort(Map.Entry.comparingByValue((a, b) -> b - a));
+                    for (Map.Entry<Integer, Integer> cell : entries){
+                        out.writeInt(cell.getKey());
+                        out.writeInt(cell.getValue());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds a book from a journal or from self-play:
+     * <pre>
+     * java omok.OpeningBook journal.bin book.bin [depth]
+     * java omok.OpeningBook --self-play games book.bin [depth]
+     * </pre>
+     */
+    public static void main(String[] args) throws IOException{
+        boolean selfPlay = args.length > 0 && args[0].equals("--self-play");
+        int first = selfPlay ? 1 : 0;
+        if (args.length < first + 2){
+            System.out.println("Usage: OpeningBook journal book [depth] | --self-play games book [depth]");
+            return;
+        }
+        int depth = args.length > first + 2 ? Integer.parseInt(args[first + 2]) : DEFAULT_DEPTH;
+        Builder builder = new Builder(depth);
+        if (selfPlay){
+            // The size of the board the game is played on
+            builder.addSelfPlay(Integer.parseInt(args[first]), new Board().getWidth(), 200, System.nanoTime());
+        }
+        else{
+            builder.addAll(JournalReplay.read(Paths.get(args[first])));
+        }
+        Path book = Paths.get(args[first + 1]);
+        builder.write(book);
+        System.out.println("Booked " + open(book).size() + " positions");
+    }
+}
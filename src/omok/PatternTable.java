@@ -0,0 +1,187 @@
+package omok;
+
+/**
+ * Lookup table classifying the threat a stone makes along one line.
+ * The four cells on each side of a point are encoded as a base 3 number
+ * (empty, own stone, or blocked by an opponent stone or the edge), and the
+ * table gives the threat an own stone on the point would form with them.
+ * The table is built once when the class is loaded and is shared by every
+ * thread, as it is never written to afterwards.
+ */
+public final class PatternTable {
+    public static final int NONE = 0;
+    public static final int TWO = 1;
+    public static final int OPEN_TWO = 2;
+    public static final int THREE = 3;
+    public static final int OPEN_THREE = 4;
+    public static final int FOUR = 5;
+    public static final int OPEN_FOUR = 6;
+    public static final int FIVE = 7;
+
+    /** Evaluation weight of each threat class */
+    private static final int[] SCORES = {0, 10, 100, 100, 1000, 1000, 10000, 100000};
+
+    private static final int EMPTY = 0;
+    private static final int OWN = 1;
+    private static final int BLOCKED = 2;
+    /** Cells on each side of the point */
+    private static final int REACH = 4;
+    private static final int SIZE = 6561;
+    private static final byte[] THREATS = new byte[SIZE];
+
+    static {
+        byte[] memo = new byte[SIZE];
+        java.util.Arrays.fill(memo, (byte) -1);
+        for (int index = 0; index < SIZE; index++){
+            THREATS[index] = (byte) classify(index, memo);
+        }
+    }
+
+    private PatternTable(){}
+
+    /**
+     * Encodes the line through a point as seen by a player
+     * @param cells the board, indexed [x][y]
+     * @param x 0-based row of the point
+     * @param y 0-based column of the point
+     * @param dx row step of the line
+     * @param dy column step of the line
+     * @param playerNum the player whose threat is wanted
+     * @return the table index of the line
+     */
+    public static int index(int[][] cells, int x, int y, int dx, int dy, int playerNum){
+        int index = 0;
+        for (int k = -REACH; k <= REACH; k++){
+            if (k == 0){
+                continue;
+            }
+            int i = x + k * dx;
+            int j = y + k * dy;
+            int cell;
+            if (i < 0 || j < 0 || i >= cells.length || j >= cells[i].length){
+                cell = BLOCKED;
+            }
+            else if (cells[i][j] == 0){
+                cell = EMPTY;
+            }
+            else{
+                cell = cells[i][j] == playerNum ? OWN : BLOCKED;
+            }
+            index = index * 3 + cell;
+        }
+        return index;
+    }
+
+    /**
+     * @param index a line index from {@link #index}
+     * @return the threat class an own stone on the point makes along the line
+     */
+    public static int threat(int index){
+        return THREATS[index];
+    }
+
+    /**
+     * @param threat a threat class
+     * @return its evaluation weight
+     */
+    public static int score(int threat){
+        return SCORES[threat];
+    }
+
+    /**
+     * Sums the threats a stone of the given player would make on an empty point
+     * along all four lines through it
+     */
+    public static int pointScore(int[][] cells, int x, int y, int playerNum){
+        return SCORES[THREATS[index(cells, x, y, 0, 1, playerNum)]]
+                + SCORES[THREATS[index(cells, x, y, 1, 0, playerNum)]]
+                + SCORES[THREATS[index(cells, x, y, 1, 1, playerNum)]]
+                + SCORES[THREATS[index(cells, x, y, 1, -1, playerNum)]];
+    }
+
+    private static int classify(int index, byte[] memo){
+        if (memo[index] >= 0){
+            return memo[index];
+        }
+        int[] line = decode(index);
+        int result;
+        if (runThroughPoint(line) >= 5){
+            result = FIVE;
+        }
+        else{
+            int completions = 0;
+            int best = NONE;
+            for (int k = 0; k < line.length; k++){
+                if (k == REACH || line[k] != EMPTY){
+                    continue;
+                }
+                line[k] = OWN;
+                if (runThroughPoint(line) >= 5){
+                    completions++;
+                }
+                else{
+                    best = Math.max(best, classify(encode(line), memo));
+                }
+                line[k] = EMPTY;
+            }
+            if (completions >= 2){
+                result = OPEN_FOUR;
+            }
+            else if (completions == 1){
+                result = FOUR;
+            }
+            else if (best == OPEN_FOUR){
+                result = OPEN_THREE;
+            }
+            else if (best == FOUR){
+                result = THREE;
+            }
+            else if (best == OPEN_THREE){
+                result = OPEN_TWO;
+            }
+            else if (best == THREE){
+                result = TWO;
+            }
+            else{
+                result = NONE;
+            }
+        }
+        memo[index] = (byte) result;
+        return result;
+    }
+
+    /** Length of the run of own stones through the point, which is always own */
+    private static int runThroughPoint(int[] line){
+        int length = 1;
+        for (int k = REACH + 1; k < line.length && line[k] == OWN; k++){
+            length++;
+        }
+        for (int k = REACH - 1; k >= 0 && line[k] == OWN; k--){
+            length++;
+        }
+        return length;
+    }
+
+    /** Expands an index into the nine cells of the line, the point included */
+    private static int[] decode(int index){
+        int[] line = new int[2 * REACH + 1];
+        for (int k = line.length - 1; k >= 0; k--){
+            if (k == REACH){
+                line[k] = OWN;
+                continue;
+            }
+            line[k] = index % 3;
+            index /= 3;
+        }
+        return line;
+    }
+    private static int encode(int[] line){
+        int index = 0;
+        for (int k = 0; k < line.length; k++){
+            if (k != REACH){
+                index = index * 3 + line[k];
+            }
+        }
+        return index;
+    }
+}
@@ -1,3 +1,5 @@
+package omok;
+
 public interface Playable {
     /**
      * @return the Player's number
@@ -9,7 +11,7 @@ public interface Playable {
     String getPlayerName();
     /**
      * Provides the position of the stoned to be placed
-     * @param board the current state of the board
+     * @param board a copy of the current state of the board, which the player may keep or change
      * @return the x, y coordinates of the stone to be placed
      */
     int[] getStonePlacement(int[][] board);
@@ -0,0 +1,293 @@
+package omok;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * On-disk index of the positions reached in recorded games. Every position
+ * is stored under its canonical hash (see Symmetry), so rotations and
+ * reflections of a position are one entry. Each entry also records the
+ * size of the board, as positions of different sizes can share a hash. The
+ * file is a header followed by fixed-size entries sorted by hash,
+ * <pre>
+ * int magic, int version, long count
+ * count times: long hash, long game, int ply, int winner, short height, short width
+ * </pre>
+ * and is memory-mapped for queries, which binary search it: about 24
+ * probes for 10M positions.
+ */
+public class PositionDatabase {
+    private static final int MAGIC = 0x4F4D5049;
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 16;
+    private static final int ENTRY_BYTES = 28;
+
+    private final ByteBuffer entries;
+    private final long count;
+
+    /**
+     * A game that reached a position
+     */
+    public static class Hit {
+        private final long game;
+        private final int ply;
+        private final int winner;
+        private final int height;
+        private final int width;
+
+        public Hit(long game, int ply, int winner, int height, int width){
+            this.game = game;
+            this.ply = ply;
+            this.winner = winner;
+            this.height = height;
+            this.width = width;
+        }
+        /**
+         * @return the id of the game in its journal
+         */
+        public long getGame(){
+            return game;
+        }
+        /**
+         * @return the number of moves played when the game reached the position
+         */
+        public int getPly(){
+            return ply;
+        }
+        /**
+         * @return the winning player's number, 0 for none, or -1 if the game never ended
+         */
+        public int getWinner(){
+            return winner;
+        }
+        /**
+         * @return the height of the game's board
+         */
+        public int getHeight(){
+            return height;
+        }
+        /**
+         * @return the width of the game's board
+         */
+        public int getWidth(){
+            return width;
+        }
+    }
+
+    private PositionDatabase(ByteBuffer entries, long count){
+        this.entries = entries;
+        this.count = count;
+    }
+
+    /**
+     * Maps an index file written by a Builder
+     */
+    public static PositionDatabase open(Path file) throws IOException{
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+            if (channel.size() > Integer.MAX_VALUE){
+                throw new IOException(file + " is too large to map at once");
+            }
+            ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (bytes.remaining() < HEADER_BYTES || bytes.getInt() != MAGIC || bytes.getInt() != VERSION){
+                throw new IOException(file + " is not a position index");
+            }
+            long count = bytes.getLong();
+            if (count * ENTRY_BYTES != bytes.remaining()){
+                throw new IOException(file + " is truncated");
+            }
+            return new PositionDatabase(bytes.slice(), count);
+        }
+    }
+
+    /**
+     * @return the number of positions stored, over all games
+     */
+    public long size(){
+        return count;
+    }
+
+    /**
+     * @return the games on a board of the same size that reached the position
+     *         or any rotation or reflection of it
+     */
+    public List<Hit> find(Board board){
+        List<Hit> hits = find(Symmetry.canonicalHash(board));
+        hits.removeIf(hit -> hit.getHeight() != board.getHeight() || hit.getWidth() != board.getWidth());
+        return hits;
+    }
+    /**
+     * @param hash a canonical hash from Symmetry.canonicalHash
+     * @return the games that reached a position with that hash, on boards of any size
+     */
+    public List<Hit> find(long hash){
+        long low = 0;
+        long high = count;
+        while (low < high){
+            long middle = (low + high) >>> 1;
+            if (hashAt(middle) < hash){
+                low = middle + 1;
+            }
+            else{
+                high = middle;
+            }
+        }
+        List<Hit> hits = new ArrayList<>();
+        for (long i = low; i < count && hashAt(i) == hash; i++){
+            int offset = (int) (i * ENTRY_BYTES);
+            hits.add(new Hit(entries.getLong(offset + 8), entries.getInt(offset + 16), entries.getInt(offset + 20),
+                    entries.getShort(offset + 24), entries.getShort(offset + 26)));
+        }
+        return hits;
+    }
+
+    private long hashAt(long i){
+        return entries.getLong((int) (i * ENTRY_BYTES));
+    }
+
+    /**
+     * Bulk-loads games into an index. Positions are collected in memory,
+     * sorted once and written in a single pass.
+     */
+    public static class Builder {
+        private long[] hashes = new long[1024];
+        private long[] games = new long[1024];
+        private int[] plies = new int[1024];
+        private int[] winners = new int[1024];
+        private short[] heights = new short[1024];
+        private short[] widths = new short[1024];
+        private int size;
+        private final long[] symmetric = new long[Symmetry.COUNT];
+
+        /**
+         * Adds every position reached in a game, after each of its moves
+         */
+        public Builder add(JournalReplay.Game game){
+            int height = game.getHeight();
+            int width = game.getWidth();
+            Arrays.fill(symmetric, 0);
+            for (int n = 0; n < game.getMoveCount(); n++){
+                int[] move = game.getMove(n);
+                for (int s = 0; s < Symmetry.COUNT; s++){
+                    if (Symmetry.fits(s, height, width)){
+                        symmetric[s] ^= Zobrist.key(Symmetry.apply(s, move[0] - 1, move[1] - 1, height, width), move[2]);
+                    }
+                }
+                add(symmetric[Symmetry.smallest(symmetric, height, width)], height, width, game.getId(), n + 1, game.getWinner());
+            }
+            return this;
+        }
+        /**
+         * Adds every position of every game
+         */
+        public Builder addAll(List<JournalReplay.Game> games){
+            for (JournalReplay.Game game : games){
+                add(game);
+            }
+            return this;
+        }
+
+        /**
+         * Adds one position directly
+         * @param hash the position's canonical hash
+         * @param height the height of the position's board
+         * @param width the width of the position's board
+         */
+        public Builder add(long hash, int height, int width, long game, int ply, int winner){
+            if (size == hashes.length){
+                int capacity = size * 2;
+                hashes = Arrays.copyOf(hashes, capacity);
+                games = Arrays.copyOf(games, capacity);
+                plies = Arrays.copyOf(plies, capacity);
+                winners = Arrays.copyOf(winners, capacity);
+                heights = Arrays.copyOf(heights, capacity);
+                widths = Arrays.copyOf(widths, capacity);
+            }
+            hashes[size] = hash;
+            games[size] = game;
+            plies[size] = ply;
+            winners[size] = winner;
+            heights[size] = (short) height;
+            widths[size] = (short) width;
+            size++;
+            return this;
+        }
+
+        /**
+         * Sorts the positions by hash and writes the index
+         */
+        public void write(Path file) throws IOException{
+            int[] order = sortedOrder();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))){
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(size);
+                for (int i : order){
+                    out.writeLong(hashes[i]);
+                    out.writeLong(games[i]);
+                    out.writeInt(plies[i]);
+                    out.writeInt(winners[i]);
+                    out.writeShort(heights[i]);
+                    out.writeShort(widths[i]);
+                }
+            }
+        }
+
+        /**
+         * Radix sorts entry numbers by hash, 16 bits at a time. Flipping the
+         * sign bit makes the unsigned digits sort like signed hashes.
+         */
+        private int[] sortedOrder(){
+            int[] order = new int[size];
+            int[] next = new int[size];
+            for (int i = 0; i < size; i++){
+                order[i] = i;
+            }
+            int[] counts = new int[1 << 16];
+            for (int shift = 0; shift < 64; shift += 16){
+                Arrays.fill(counts, 0);
+                for (int i = 0; i < size; i++){
+                    counts[digit(hashes[i], shift)]++;
+                }
+                int total = 0;
+                for (int d = 0; d < counts.length; d++){
+                    int c = counts[d];
+                    counts[d] = total;
+                    total += c;
+                }
+                for (int i : order){
+                    next[counts[digit(hashes[i], shift)]++] = i;
+                }
+                int[] swap = order;
+                order = next;
+                next = swap;
+            }
+            return order;
+        }
+        private static int digit(long hash, int shift){
+            return (int) (((hash ^ Long.MIN_VALUE) >>> shift) & 0xFFFF);
+        }
+    }
+
+    /**
+     * Builds an index from a journal:
+     * java omok.PositionDatabase journal.bin index.bin
+     */
+    public static void main(String[] args) throws IOException{
+        if (args.length != 2){
+            System.out.println("Usage: PositionDatabase journal index");
+            return;
+        }
+        Builder builder = new Builder().addAll(JournalReplay.read(Paths.get(args[0])));
+        builder.write(Paths.get(args[1]));
+        System.out.println("Indexed " + open(Paths.get(args[1])).size() + " positions");
+    }
+}
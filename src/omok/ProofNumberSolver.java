@@ -0,0 +1,353 @@
+package omok;
+
+import java.util.Arrays;
+
+/**
+ * Exact endgame solver using depth-first proof-number search (df-pn).
+ * It first tries to prove that the player to move can force five in a row;
+ * if that is disproved it tries to prove the opponent can, and if both are
+ * disproved the position is a draw. Proof and disproof numbers are kept in
+ * a fixed-size table, so memory use is set once at construction no matter
+ * how many positions are searched.
+ */
+public class ProofNumberSolver {
+    /** Outcome of a solved position for the player to move */
+    public enum Outcome {
+        WIN,
+        LOSS,
+        DRAW,
+        /** The node budget ran out before the position was solved */
+        UNKNOWN
+    }
+
+    /** Positions with fewer empty cells than this are worth solving exactly */
+    public static final int DEFAULT_EMPTY_THRESHOLD = 24;
+    public static final int DEFAULT_TABLE_MEGABYTES = 16;
+    public static final long DEFAULT_MAX_NODES = 200000;
+
+    private static final int INFINITY = Integer.MAX_VALUE / 4;
+    private static final int PROVED = 1;
+    private static final int DISPROVED = 0;
+    private static final int UNSOLVED = -1;
+    /** Bytes used by one table entry: a key and two numbers */
+    private static final int ENTRY_BYTES = 16;
+
+    private final long[] keys;
+    private final int[] phis;
+    private final int[] deltas;
+    private final int mask;
+    private final long maxNodes;
+
+    private Board board;
+    private int width;
+    private int attacker;
+    private long nodes;
+    private long deadline;
+    private boolean stopped;
+    /** Candidate moves of every node on the current path, each node's after its parent's */
+    private int[] moveStack = new int[0];
+    /** Where generateMoves writes before the moves are filtered onto the stack */
+    private int[] scratch = new int[0];
+
+    public ProofNumberSolver(){
+        this(DEFAULT_TABLE_MEGABYTES, DEFAULT_MAX_NODES);
+    }
+    /**
+     * @param tableMegabytes memory for the proof and disproof numbers
+     * @param maxNodes positions to expand before giving up with UNKNOWN
+     */
+    public ProofNumberSolver(int tableMegabytes, long maxNodes){
+        long entries = Long.highestOneBit(Math.max(1L, (long) tableMegabytes * 1024 * 1024 / ENTRY_BYTES));
+        entries = Math.min(entries, 1L << 30);
+        keys = new long[(int) entries];
+        phis = new int[(int) entries];
+        deltas = new int[(int) entries];
+        mask = (int) entries - 1;
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Result of a solved position
+     */
+    public static class Result {
+        private final Outcome outcome;
+        private final int[] line;
+        private final long nodes;
+
+        public Result(Outcome outcome, int[] line, long nodes){
+            this.outcome = outcome;
+            this.line = line;
+            this.nodes = nodes;
+        }
+        /**
+         * @return the outcome for the player to move
+         */
+        public Outcome getOutcome(){
+            return outcome;
+        }
+        /**
+         * @return the principal line as 0-based cell indices (row * width + column),
+         *         starting with the move of the player to move; empty if UNKNOWN
+         */
+        public int[] getLine(){
+            return line;
+        }
+        /**
+         * @return the number of positions expanded
+         */
+        public long getNodes(){
+            return nodes;
+        }
+    }
+
+    /**
+     * Solves a position exactly, within the node budget
+     * @param board the position, left as it was found
+     * @param playerNum the player to move
+     * @return the outcome for the player to move and the line that leads to it
+     */
+    public Result solve(Board board, int playerNum){
+        deadline = Long.MAX_VALUE;
+        return run(board, playerNum);
+    }
+    /**
+     * Solves a position exactly, within the node budget and a wall-clock budget
+     * @param board the position, left as it was found
+     * @param playerNum the player to move
+     * @param timeBudgetMillis time to spend before giving up with UNKNOWN
+     * @return the outcome for the player to move and the line that leads to it
+     */
+    public Result solve(Board board, int playerNum, long timeBudgetMillis){
+        deadline = System.nanoTime() + timeBudgetMillis * 1000000L;
+        return run(board, playerNum);
+    }
+
+    private Result run(Board board, int playerNum){
+        stopped = false;
+        this.board = board;
+        width = board.getWidth();
+        int area = width * board.getHeight();
+        if (scratch.length < area){
+            scratch = new int[area];
+        }
+        nodes = 0;
+
+        int first = prove(playerNum, playerNum);
+        if (first == PROVED){
+            return new Result(Outcome.WIN, principalLine(playerNum), nodes);
+        }
+        if (first == UNSOLVED){
+            return new Result(Outcome.UNKNOWN, new int[0], nodes);
+        }
+        int second = prove(3 - playerNum, playerNum);
+        if (second == PROVED){
+            return new Result(Outcome.LOSS, principalLine(playerNum), nodes);
+        }
+        if (second == UNSOLVED){
+            return new Result(Outcome.UNKNOWN, new int[0], nodes);
+        }
+        return new Result(Outcome.DRAW, principalLine(playerNum), nodes);
+    }
+
+    /**
+     * Runs df-pn from the root with the given attacker
+     * @return PROVED, DISPROVED or UNSOLVED for the attacker's win
+     */
+    private int prove(int attacker, int playerNum){
+        this.attacker = attacker;
+        Arrays.fill(keys, 0);
+        mid(playerNum, INFINITY - 1, INFINITY - 1, 0);
+        long key = key(playerNum);
+        int i = (int) key & mask;
+        if (keys[i] != key){
+            return UNSOLVED;
+        }
+        // phi is zero when the player to move reaches its goal, delta when it cannot
+        int reached = playerNum == attacker ? phis[i] : deltas[i];
+        int failed = playerNum == attacker ? deltas[i] : phis[i];
+        if (reached == 0){
+            return PROVED;
+        }
+        return failed == 0 ? DISPROVED : UNSOLVED;
+    }
+
+    /**
+     * Expands a node until its phi or delta reaches its threshold. phi is the
+     * proof number from the point of view of the player to move, delta the
+     * disproof number.
+     * @param base where the node's moves go on the move stack
+     */
+    private void mid(int playerNum, int thresholdPhi, int thresholdDelta, int base){
+        nodes++;
+        if ((nodes & 1023) == 0 && System.nanoTime() > deadline){
+            stopped = true;
+        }
+        int count = children(base, playerNum);
+        if (count == 0){
+            // A full board is a draw, which only the defender is happy with
+            store(key(playerNum), playerNum == attacker ? INFINITY : 0, playerNum == attacker ? 0 : INFINITY);
+            return;
+        }
+        int opponent = 3 - playerNum;
+        while (nodes <= maxNodes && !stopped){
+            int phi = INFINITY;
+            int delta = 0;
+            int best = -1;
+            int bestDelta = INFINITY;
+            int secondDelta = INFINITY;
+            int bestPhi = 0;
+            for (int n = 0; n < count; n++){
+                int move = moveStack[base + n];
+                board.makeMove(move, playerNum);
+                int childPhi;
+                int childDelta;
+                if (board.lastMoveWins()){
+                    // The opponent is to move and has already lost
+                    childPhi = INFINITY;
+                    childDelta = 0;
+                }
+                else{
+                    long childKey = key(opponent);
+                    int i = (int) childKey & mask;
+                    if (keys[i] == childKey){
+                        childPhi = phis[i];
+                        childDelta = deltas[i];
+                    }
+                    else{
+                        childPhi = 1;
+                        childDelta = 1;
+                    }
+                }
+                board.undoMove();
+                phi = Math.min(phi, childDelta);
+                delta = Math.min(INFINITY, delta + childPhi);
+                if (childDelta < bestDelta){
+                    secondDelta = bestDelta;
+                    bestDelta = childDelta;
+                    bestPhi = childPhi;
+                    best = move;
+                }
+                else if (childDelta < secondDelta){
+                    secondDelta = childDelta;
+                }
+            }
+            store(key(playerNum), phi, delta);
+            if (phi >= thresholdPhi || delta >= thresholdDelta){
+                return;
+            }
+            board.makeMove(best, playerNum);
+            mid(opponent, Math.min(INFINITY - 1, thresholdDelta - delta + bestPhi),
+                    Math.min(thresholdPhi, secondDelta + 1), base + count);
+            board.undoMove();
+        }
+    }
+
+    /**
+     * Candidate moves of a position: a five if there is one, otherwise the
+     * block of the opponent's five if there is one, otherwise the frontier.
+     * The frontier's order changes as stones come and go, so the lowest cell
+     * is taken when there is a choice of five or block, keeping the child
+     * the same every time the position is seen. The move stack grows as
+     * needed, so it ends up as long as the longest path's moves put together.
+     * @param base where to write the moves on the move stack
+     * @return the number of moves written
+     */
+    private int children(int base, int playerNum){
+        int[] moves = scratch;
+        int count = board.generateMoves(moves);
+        int[][] cells = board.getBoard();
+        int five = -1;
+        int block = -1;
+        for (int n = 0; n < count; n++){
+            int x = moves[n] / width;
+            int y = moves[n] % width;
+            if ((five < 0 || moves[n] < five) && makesFive(cells, x, y, playerNum)){
+                five = moves[n];
+            }
+            else if (five < 0 && (block < 0 || moves[n] < block) && makesFive(cells, x, y, 3 - playerNum)){
+                block = moves[n];
+            }
+        }
+        if (five >= 0){
+            moves[0] = five;
+            count = 1;
+        }
+        else if (block >= 0){
+            moves[0] = block;
+            count = 1;
+        }
+        if (moveStack.length < base + count){
+            moveStack = Arrays.copyOf(moveStack, Math.max(base + count, moveStack.length * 2));
+        }
+        System.arraycopy(moves, 0, moveStack, base, count);
+        return count;
+    }
+
+    private static boolean makesFive(int[][] cells, int x, int y, int playerNum){
+        return PatternTable.threat(PatternTable.index(cells, x, y, 0, 1, playerNum)) == PatternTable.FIVE
+                || PatternTable.threat(PatternTable.index(cells, x, y, 1, 0, playerNum)) == PatternTable.FIVE
+                || PatternTable.threat(PatternTable.index(cells, x, y, 1, 1, playerNum)) == PatternTable.FIVE
+                || PatternTable.threat(PatternTable.index(cells, x, y, 1, -1, playerNum)) == PatternTable.FIVE;
+    }
+
+    /**
+     * Follows the table from the root: the player who reaches its goal plays
+     * a move that keeps it reached, the other plays any move
+     */
+    private int[] principalLine(int playerNum){
+        int[] line = new int[board.getWidth() * board.getHeight()];
+        int length = 0;
+        while (true){
+            int count = children(0, playerNum);
+            int[] moves = moveStack;
+            if (count == 0){
+                break;
+            }
+            long key = key(playerNum);
+            int i = (int) key & mask;
+            boolean reached = keys[i] == key && phis[i] == 0;
+            int chosen = -1;
+            boolean finished = false;
+            for (int n = 0; n < count && chosen < 0; n++){
+                board.makeMove(moves[n], playerNum);
+                if (board.lastMoveWins()){
+                    chosen = moves[n];
+                    finished = true;
+                }
+                else{
+                    long childKey = key(3 - playerNum);
+                    int j = (int) childKey & mask;
+                    if (keys[j] == childKey && (!reached || deltas[j] == 0)){
+                        chosen = moves[n];
+                    }
+                }
+                board.undoMove();
+            }
+            if (chosen < 0){
+                break;
+            }
+            board.makeMove(chosen, playerNum);
+            line[length++] = chosen;
+            playerNum = 3 - playerNum;
+            if (finished){
+                break;
+            }
+        }
+        for (int n = 0; n < length; n++){
+            board.undoMove();
+        }
+        return Arrays.copyOf(line, length);
+    }
+
+    private long key(int playerNum){
+        long key = board.getHash() ^ Zobrist.sideKey(playerNum);
+        // Zero marks an empty slot
+        return key == 0 ? 1 : key;
+    }
+    private void store(long key, int phi, int delta){
+        int i = (int) key & mask;
+        keys[i] = key;
+        phis[i] = phi;
+        deltas[i] = delta;
+    }
+}
@@ -0,0 +1,140 @@
+package omok;
+import java.io.EOFException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One client of a NetworkServer, seen as a stream of text lines. The
+ * server's selector thread fills the inbound queue and drains the
+ * outbound one, so the session thread that owns the connection only ever
+ * waits on a queue, never on the socket. Both queues are bounded, see
+ * NetworkServer.
+ */
+public class RemoteConnection {
+    /** Put on the inbound queue once the client has gone */
+    private static final String DISCONNECTED = new String("");
+
+    private final NetworkServer server;
+    final SocketChannel channel;
+    final Queue<ByteBuffer> outbound = new ConcurrentLinkedQueue<>();
+    /** Room for the DISCONNECTED sentinel on top of the lines */
+    private final BlockingQueue<String> inbound = new LinkedBlockingQueue<>(NetworkServer.MAX_INBOUND_LINES + 1);
+    /** Bytes in outbound not yet written */
+    private final AtomicInteger outboundBytes = new AtomicInteger();
+    /** Bytes of the line being read */
+    private final byte[] partial = new byte[NetworkServer.MAX_LINE];
+    private int partialLength;
+    private volatile boolean disconnected;
+    /** Set when the session is done: the channel closes once outbound is flushed */
+    volatile boolean closing;
+    /** Set when the client is to be dropped without flushing */
+    volatile boolean kicked;
+
+    RemoteConnection(NetworkServer server, SocketChannel channel){
+        this.server = server;
+        this.channel = channel;
+    }
+
+    /**
+     * Queues a line for the client, without waiting for it to be written
+     * @param line the line to send, without the line break
+     * @throws UncheckedIOException if the client disconnected or is too far behind reading, which disconnects it
+     */
+    public void send(String line){
+        if (disconnected || kicked){
+            throw new UncheckedIOException(new EOFException("Remote player disconnected"));
+        }
+        byte[] bytes = (line + "\n").getBytes(StandardCharsets.UTF_8);
+        if (outboundBytes.addAndGet(bytes.length) > NetworkServer.MAX_OUTBOUND_BYTES){
+            server.kick(this);
+            throw new UncheckedIOException(new EOFException("Remote player is not reading"));
+        }
+        outbound.add(ByteBuffer.wrap(bytes));
+        server.wantsWrite(this);
+    }
+
+    /**
+     * Waits for the next line from the client
+     * @return the line, without the line break
+     * @throws UncheckedIOException if the client disconnected
+     */
+    public String receive(){
+        try{
+            String line = inbound.poll(NetworkServer.IDLE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            if (line == null){
+                server.kick(this);
+                throw new UncheckedIOException(new EOFException("Remote player timed out"));
+            }
+            if (line == DISCONNECTED){
+                inbound.add(DISCONNECTED);
+                throw new UncheckedIOException(new EOFException("Remote player disconnected"));
+            }
+            return line;
+        }
+        catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a remote player", e);
+        }
+    }
+
+    /**
+     * Closes the connection once everything sent so far has been written
+     */
+    public void close(){
+        closing = true;
+        server.wantsWrite(this);
+    }
+
+    /** Counts bytes written to the channel, on the selector thread */
+    void wrote(int bytes){
+        outboundBytes.addAndGet(-bytes);
+    }
+
+    /**
+     * Splits freshly read bytes into lines, on the selector thread
+     * @return false if a line is longer than NetworkServer.MAX_LINE or the
+     *         client is more than NetworkServer.MAX_INBOUND_LINES lines ahead
+     */
+    boolean received(ByteBuffer bytes){
+        while (bytes.hasRemaining()){
+            byte b = bytes.get();
+            if (b == '\n'){
+                int end = partialLength;
+                if (end > 0 && partial[end - 1] == '\r'){
+                    end--;
+                }
+                // Only this thread adds, so the size cannot grow behind its back
+                if (inbound.size() >= NetworkServer.MAX_INBOUND_LINES){
+                    return false;
+                }
+                inbound.add(new String(partial, 0, end, StandardCharsets.UTF_8));
+                partialLength = 0;
+            }
+            else if (partialLength == partial.length){
+                return false;
+            }
+            else{
+                partial[partialLength++] = b;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Wakes up the session after the channel has been closed, on the selector thread
+     */
+    void disconnected(){
+        if (!disconnected){
+            disconnected = true;
+            inbound.add(DISCONNECTED);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package omok;
+
+/**
+ * A player connected to a NetworkServer, for games run by something other
+ * than the player's own session, such as a Tournament between clients.
+ * The player is sent the board and asked for a move each turn.
+ */
+public class RemotePlayer implements Playable {
+    private final RemoteUserInterface UI;
+    private final String playerName;
+    private final int playerNum;
+    public RemotePlayer(RemoteConnection connection, String name, int num){
+        UI = new RemoteUserInterface(connection);
+        playerName = name;
+        playerNum = num;
+    }
+    @Override
+    public int getPlayerNum(){return playerNum;}
+    @Override
+    public String getPlayerName(){
+        return playerName;
+    }
+    @Override
+    public int[] getStonePlacement(int[][] board){
+        UI.drawBoard(board);
+        return UI.getStonePlacement(playerName);
+    }
+}
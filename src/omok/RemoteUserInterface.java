@@ -0,0 +1,73 @@
+package omok;
+
+/**
+ * User interface for a player connected to a NetworkServer. Every call is
+ * turned into a line of the server's protocol, and calls that need an
+ * answer wait for the client's next line.
+ */
+public class RemoteUserInterface implements UserInterfaceable {
+    private final RemoteConnection connection;
+    public RemoteUserInterface(RemoteConnection connection){
+        this.connection = connection;
+    }
+    @Override
+    public void drawBoard(int[][] board){
+        int width = board.length == 0 ? 0 : board[0].length;
+        StringBuilder line = new StringBuilder(16 + board.length * width);
+        line.append("BOARD ").append(board.length).append(' ').append(width).append(' ');
+        for (int[] row : board){
+            for (int cell : row){
+                line.append((char) ('0' + cell));
+            }
+        }
+        connection.send(line.toString());
+    }
+    @Override
+    public int[] getStonePlacement(String playerName){
+        while (true){
+            connection.send("MOVE? " + playerName);
+            String[] answer = connection.receive().trim().split("\\s+");
+            if (answer.length == 2){
+                try{
+                    return new int[] {Integer.parseInt(answer[0]), Integer.parseInt(answer[1])};
+                }
+                catch (NumberFormatException e){
+                    // Asked again below
+                }
+            }
+            displayString("Please answer with the x and y coordinates of your stone");
+        }
+    }
+    @Override
+    public void displayString(String toDisplay){
+        connection.send("MSG " + toDisplay.replace('\n', ' '));
+    }
+    @Override
+    public int getGameMode(){
+        while (true){
+            connection.send("MODE?");
+            String answer = connection.receive().trim();
+            if (answer.equals("1") || answer.equals("2") || answer.equals("3") || answer.equals("-9")){
+                return Integer.parseInt(answer);
+            }
+            displayString("Please select a valid option");
+        }
+    }
+    @Override
+    public String getPlayerName(int playerNum){
+        connection.send("NAME? " + playerNum);
+        return connection.receive().trim();
+    }
+    @Override
+    public void drawVictoryScreen(String playerName){
+        connection.send("WIN " + playerName);
+    }
+    @Override
+    public void drawDefeatScreen(){
+        connection.send("LOSE");
+    }
+    @Override
+    public void drawTieScreen(){
+        connection.send("DRAW");
+    }
+}
@@ -0,0 +1,783 @@
+package omok;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Negamax search with alpha-beta pruning and iterative deepening.
+ * Each call to search is bounded by a wall-clock budget: the engine keeps
+ * deepening until the budget runs out and answers with the best move of the
+ * deepest iteration that finished. A ThreatSolver runs first on a quarter
+ * of the budget, and a forced win by fours and threes is played without
+ * searching. Once few empty cells are left, a ProofNumberSolver gets
+ * half the budget to solve the position exactly; a proven win or draw is
+ * played without searching.
+ * <p>
+ * Between its moves the engine can ponder: search on the opponent's time
+ * the position after the reply it expects, see {@link #startPondering}.
+ */
+public class SearchEngine {
+    /** Score of a completed five, reduced by the ply it happens at */
+    public static final int WIN_SCORE = 1000000;
+    /** Deepest iteration ever attempted */
+    public static final int MAX_DEPTH = 32;
+
+    /** Default transposition table size */
+    public static final int DEFAULT_TABLE_MEGABYTES = 8;
+    /** Pondering gives up after this long if it is never stopped */
+    private static final long PONDER_LIMIT_MILLIS = 60 * 60 * 1000;
+
+    private final long timeBudgetNanos;
+    private final TranspositionTable table;
+    /** Extra engines sharing the table, one per additional thread */
+    private final SearchEngine[] helpers;
+    private final ExecutorService pool;
+
+    private int depthLimit = MAX_DEPTH;
+    private final ThreatSolver threats = new ThreatSolver();
+    private int endgameThreshold = ProofNumberSolver.DEFAULT_EMPTY_THRESHOLD;
+    /** Created the first time an endgame is reached */
+    private ProofNumberSolver endgame;
+    private ProofNumberSolver.Outcome lastOutcome = ProofNumberSolver.Outcome.UNKNOWN;
+
+    /** Searches on the opponent's time, sharing the table; created the first time the engine ponders */
+    private SearchEngine ponderer;
+    private ExecutorService ponderThread;
+    /** The running ponder search, or null */
+    private Future<Integer> pondering;
+    private AtomicBoolean ponderStop;
+    /** Hash and side to move of the position being pondered */
+    private long ponderKey;
+    private long ponderStart;
+
+    private Board board;
+    private int[][] cells;
+    private int width;
+    private int height;
+    private long deadline;
+    private AtomicBoolean stopSignal;
+    /** Set by the caller of searchMove to end it early, or null; helpers share it */
+    private AtomicBoolean cancelSignal;
+    private boolean stopped;
+    private long nodes;
+    private int lastScore;
+    private int lastDepth;
+    private long lastNodes;
+    private long lastTimeMillis;
+    /** Whether the last move came from the ponder search */
+    private boolean lastFromPonder;
+    private int[][] moveBuffers = new int[0][];
+    private int[][] orderBuffers = new int[0][];
+    private int[] evaluationBuffer = new int[0];
+
+    /**
+     * @param timeBudgetMillis the maximum time a single search may take
+     */
+    public SearchEngine(long timeBudgetMillis){
+        this(timeBudgetMillis, DEFAULT_TABLE_MEGABYTES, 1);
+    }
+    /**
+     * @param timeBudgetMillis the maximum time a single search may take
+     * @param tableMegabytes the memory given to the transposition table
+     */
+    public SearchEngine(long timeBudgetMillis, int tableMegabytes){
+        this(timeBudgetMillis, tableMegabytes, 1);
+    }
+    /**
+     * Creates an engine that searches on several threads at once. All threads
+     * search the same position and share one transposition table (lazy SMP),
+     * so they mostly speed each other up through the table.
+     * @param timeBudgetMillis the maximum time a single search may take
+     * @param tableMegabytes the memory given to the shared transposition table
+     * @param threads the number of threads to search with, including the caller's
+     */
+    public SearchEngine(long timeBudgetMillis, int tableMegabytes, int threads){
+        this(timeBudgetMillis, new TranspositionTable(tableMegabytes), threads);
+    }
+    private SearchEngine(long timeBudgetMillis, TranspositionTable table, int threads){
+        if (threads < 1){
+            throw new IllegalArgumentException("Thread count cannot be " + threads);
+        }
+        this.timeBudgetNanos = timeBudgetMillis * 1000000L;
+        this.table = table;
+        helpers = new SearchEngine[threads - 1];
+        for (int i = 0; i < helpers.length; i++){
+            helpers[i] = new SearchEngine(timeBudgetMillis, table, 1);
+        }
+        if (helpers.length == 0){
+            pool = null;
+        }
+        else{
+            pool = Executors.newFixedThreadPool(helpers.length, runnable -> {
+                Thread thread = new Thread(runnable, "omokfish-search");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Stops iterative deepening at the given depth even if time is left,
+     * which makes searches repeatable for testing and benchmarking
+     * @param depthLimit the deepest iteration to search, at most MAX_DEPTH
+     */
+    public void setDepthLimit(int depthLimit){
+        this.depthLimit = Math.max(1, Math.min(depthLimit, MAX_DEPTH));
+        for (SearchEngine helper : helpers){
+            helper.setDepthLimit(depthLimit);
+        }
+    }
+
+    /**
+     * Sets how few empty cells a position must have before it is
+     * handed to the ProofNumberSolver
+     * @param endgameThreshold number of empty cells below which positions are solved exactly, 0 to never solve
+     */
+    public void setEndgameThreshold(int endgameThreshold){
+        this.endgameThreshold = Math.max(0, endgameThreshold);
+    }
+
+    /**
+     * Forgets every position searched so far, so that the next search
+     * does not depend on the ones before it
+     */
+    public void clearTable(){
+        table.clear();
+    }
+
+    /**
+     * @return the number of threads this engine searches with
+     */
+    public int getThreads(){
+        return helpers.length + 1;
+    }
+
+    /**
+     * Stops pondering and the helper threads of a multi-threaded engine
+     */
+    public void shutdown(){
+        stopPondering();
+        if (pool != null){
+            pool.shutdownNow();
+        }
+        if (ponderThread != null){
+            ponderThread.shutdownNow();
+        }
+    }
+
+    /**
+     * Starts searching on the opponent's time. The engine guesses the
+     * opponent's reply, from the table or else from move ordering, and
+     * searches the position after it on a background thread, one thread
+     * however many the engine searches with, until the next searchMove or
+     * stopPondering. If the opponent plays the guessed move, searchMove
+     * answers from that search as soon as it has run for the time budget;
+     * otherwise the table it filled still speeds up the regular search.
+     * @param board the position after the engine's move, which is copied
+     * @param playerNum the opponent, who is to move
+     * @return the guessed reply as a 0-based cell index, or -1 if there is nothing to ponder
+     */
+    public int startPondering(Board board, int playerNum){
+        stopPondering();
+        if (ponderer == null){
+            ponderer = new SearchEngine(PONDER_LIMIT_MILLIS, table, 1);
+            ponderThread = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "omokfish-ponder");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        ponderer.depthLimit = depthLimit;
+        Board copy = new Board(board.getBoard());
+        int reply = ponderer.guessReply(copy, playerNum);
+        if (reply < 0){
+            return -1;
+        }
+        copy.makeMove(reply, playerNum);
+        if (copy.lastMoveWins()){
+            return -1;
+        }
+        int engineNum = 3 - playerNum;
+        AtomicBoolean stop = new AtomicBoolean();
+        long start = System.nanoTime();
+        ponderKey = copy.getHash() ^ Zobrist.sideKey(engineNum);
+        ponderStop = stop;
+        ponderStart = start;
+        pondering = ponderThread.submit(() -> ponderer.searchAlone(copy, engineNum, start, 1, stop));
+        return reply;
+    }
+
+    /**
+     * Stops pondering, if the engine is, and waits for the ponder search to end
+     */
+    public void stopPondering(){
+        if (pondering != null){
+            ponderStop.set(true);
+            await(pondering);
+            pondering = null;
+        }
+    }
+
+    /**
+     * @return true while a ponder search is running or waiting to be used
+     */
+    public boolean isPondering(){
+        return pondering != null;
+    }
+
+    /**
+     * Searches the best move for the given player. The board is used as
+     * scratch space and is left as it was found.
+     * @param board the position to search
+     * @param playerNum the player to move
+     * @return the best move found together with search statistics
+     */
+    public SearchResult search(Board board, int playerNum){
+        int move = searchMove(board, playerNum);
+        if (move < 0){
+            return new SearchResult(null, 0, 0, 0, 0);
+        }
+        return new SearchResult(new int[] {move / width + 1, move % width + 1},
+                lastScore, lastDepth, lastNodes, lastTimeMillis);
+    }
+
+    /**
+     * Same as {@link #search} but returns the move as a 0-based cell index
+     * (row * width + column) and leaves the statistics in getLastScore,
+     * getLastDepth, getLastNodes and getLastTimeMillis. Once the engine has
+     * searched a board of the same size, a single-threaded engine allocates
+     * nothing here.
+     * @return the best move, or -1 if the board is full
+     */
+    public int searchMove(Board board, int playerNum){
+        return searchMove(board, playerNum, null);
+    }
+
+    /**
+     * Same as {@link #searchMove(Board, int)}, ending early once another
+     * thread sets the cancel flag: the search then answers with the best
+     * move of the deepest iteration finished so far
+     * @param cancel set to stop the search, or null to always use the whole budget
+     */
+    public int searchMove(Board board, int playerNum, AtomicBoolean cancel){
+        long start = System.nanoTime();
+        cancelSignal = cancel;
+        int pondered = pondering != null ? finishPondering(board, playerNum, start) : -1;
+        prepare(board);
+        lastOutcome = ProofNumberSolver.Outcome.UNKNOWN;
+        lastFromPonder = false;
+        // A quarter of the budget, so the search proper keeps most of it; only the node
+        // limit under a depth limit, as the clock would make the search unrepeatable
+        long threatMillis = depthLimit < MAX_DEPTH ? Long.MAX_VALUE : Math.max(1, timeBudgetNanos / 4000000L);
+        int threatLength = threats.search(board, playerNum, threatMillis);
+        if (threatLength > 0){
+            // A forced win by threats needs no further search
+            lastScore = WIN_SCORE - threatLength;
+            lastDepth = threatLength;
+            lastNodes = threats.getNodes();
+            lastTimeMillis = (System.nanoTime() - start) / 1000000L;
+            return threats.getLine()[0];
+        }
+        if (pondered >= 0){
+            lastFromPonder = true;
+            return pondered;
+        }
+        // Gated on empty cells, not the frontier: a lone stone's frontier is small too
+        if (board.getHeight() * board.getWidth() - board.getStoneCount() < endgameThreshold){
+            int move = solveEndgame(board, playerNum, start);
+            if (move >= 0){
+                return move;
+            }
+        }
+        if (helpers.length == 0){
+            return searchAlone(board, playerNum, start, 1, null);
+        }
+        AtomicBoolean stop = new AtomicBoolean();
+        List<Future<Integer>> results = new ArrayList<>(helpers.length);
+        for (int i = 0; i < helpers.length; i++){
+            SearchEngine helper = helpers[i];
+            Board copy = new Board(board.getBoard());
+            // Helper i is thread i + 1, the caller being thread 0; odd threads start one ply
+            // deeper so threads spread over different depths
+            int startDepth = 1 + (i + 1) % 2;
+            helper.cancelSignal = cancel;
+            results.add(pool.submit(() -> helper.searchAlone(copy, playerNum, start, startDepth, stop)));
+        }
+        int bestMove = searchAlone(board, playerNum, start, 1, stop);
+        stop.set(true);
+        long totalNodes = lastNodes;
+        for (int i = 0; i < helpers.length; i++){
+            try{
+                int move = results.get(i).get();
+                SearchEngine helper = helpers[i];
+                totalNodes += helper.lastNodes;
+                if (move >= 0 && helper.lastDepth > lastDepth){
+                    bestMove = move;
+                    lastScore = helper.lastScore;
+                    lastDepth = helper.lastDepth;
+                }
+            }
+            catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+            }
+            catch (ExecutionException e){
+                throw new IllegalStateException("Search thread failed", e.getCause());
+            }
+        }
+        lastNodes = totalNodes;
+        lastTimeMillis = (System.nanoTime() - start) / 1000000L;
+        return bestMove;
+    }
+
+    /**
+     * Ranks the best few moves of a position in one iterative deepening
+     * search on the calling thread (multi-PV). Each root move is searched
+     * with its lower bound at the score of the weakest line kept so far, so
+     * a move only costs a full search if it enters the ranking, and all
+     * lines share the transposition table, which also yields their
+     * continuations. The board is used as scratch space and is left as it was found.
+     * @param board the position to analyze
+     * @param playerNum the player to move
+     * @param lines the number of moves to rank
+     * @param progress receives the ranking after every completed iteration, or null
+     * @return the ranking of the deepest completed iteration
+     */
+    public Analysis analyze(Board board, int playerNum, int lines, Consumer<Analysis> progress){
+        long start = System.nanoTime();
+        stopPondering();
+        prepare(board);
+        deadline = start + timeBudgetNanos;
+        stopSignal = null;
+        cancelSignal = null;
+        stopped = false;
+        nodes = 0;
+        lastOutcome = ProofNumberSolver.Outcome.UNKNOWN;
+        int[] rootMoves = moveBuffers[0];
+        int moveCount = generateMoves(rootMoves, orderBuffers[0], playerNum);
+        lines = Math.max(0, Math.min(lines, moveCount));
+        Analysis analysis = new Analysis(Collections.emptyList(), 0, 0, 0);
+        int[] topMoves = new int[lines];
+        int[] topScores = new int[lines];
+        for (int depth = 1; depth <= depthLimit && lines > 0; depth++){
+            Arrays.fill(topScores, -WIN_SCORE - 1);
+            for (int i = 0; i < moveCount; i++){
+                int floor = topScores[lines - 1];
+                int score = scoreMove(rootMoves[i], playerNum, depth, 0, floor, WIN_SCORE + 1);
+                if (stopped){
+                    break;
+                }
+                if (score > floor){
+                    int k = lines - 1;
+                    while (k > 0 && topScores[k - 1] < score){
+                        topScores[k] = topScores[k - 1];
+                        topMoves[k] = topMoves[k - 1];
+                        k--;
+                    }
+                    topScores[k] = score;
+                    topMoves[k] = rootMoves[i];
+                }
+            }
+            if (stopped){
+                break;
+            }
+            boolean decided = true;
+            List<Analysis.Line> ranking = new ArrayList<>(lines);
+            for (int k = 0; k < lines; k++){
+                int[] variation = principalVariation(topMoves[k], playerNum, depth);
+                int[][] coordinates = new int[variation.length][];
+                for (int n = 0; n < variation.length; n++){
+                    coordinates[n] = new int[] {variation[n] / width + 1, variation[n] % width + 1};
+                }
+                ranking.add(new Analysis.Line(coordinates[0], topScores[k], coordinates));
+                decided &= Math.abs(topScores[k]) >= WIN_SCORE - MAX_DEPTH;
+            }
+            for (int k = lines - 1; k >= 0; k--){
+                moveToFront(rootMoves, moveCount, topMoves[k]);
+            }
+            lastScore = topScores[0];
+            lastDepth = depth;
+            analysis = new Analysis(Collections.unmodifiableList(ranking), depth, nodes, (System.nanoTime() - start) / 1000000L);
+            if (progress != null){
+                progress.accept(analysis);
+            }
+            if (decided){
+                break;
+            }
+        }
+        lastNodes = nodes;
+        lastTimeMillis = (System.nanoTime() - start) / 1000000L;
+        return analysis;
+    }
+
+    /**
+     * Follows the best moves stored in the table from a root move, as far as
+     * the table, the depth or a completed five allow
+     * @return the 0-based cell indexes of the line, starting with the root move
+     */
+    private int[] principalVariation(int move, int playerNum, int depth){
+        int[] line = new int[depth];
+        int length = 0;
+        board.makeMove(move, playerNum);
+        line[length++] = move;
+        while (length < depth && !board.lastMoveWins()){
+            playerNum = 3 - playerNum;
+            long entry = table.probe(board.getHash() ^ Zobrist.sideKey(playerNum));
+            int next = entry == 0 ? -1 : TranspositionTable.moveOf(entry);
+            if (next < 0 || next >= width * height || cells[next / width][next % width] != 0){
+                break;
+            }
+            board.makeMove(next, playerNum);
+            line[length++] = next;
+        }
+        for (int n = 0; n < length; n++){
+            board.undoMove();
+        }
+        return Arrays.copyOf(line, length);
+    }
+
+    /**
+     * Ends pondering. On the pondered position the ponder search is first
+     * given what is left of the time budget, counted from when it started,
+     * and its statistics become the last search's.
+     * @return the pondered move, or -1 if the position is a different one
+     */
+    private int finishPondering(Board board, int playerNum, long start){
+        boolean hit = (board.getHash() ^ Zobrist.sideKey(playerNum)) == ponderKey;
+        long remaining = ponderStart + timeBudgetNanos - start;
+        if (hit && remaining > 0){
+            try{
+                pondering.get(remaining, TimeUnit.NANOSECONDS);
+            }
+            catch (TimeoutException | ExecutionException e){
+                // Stopped or rethrown below
+            }
+            catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+            }
+        }
+        ponderStop.set(true);
+        int move = await(pondering);
+        pondering = null;
+        if (!hit || move < 0 || ponderer.lastDepth == 0){
+            return -1;
+        }
+        lastScore = ponderer.lastScore;
+        lastDepth = ponderer.lastDepth;
+        lastNodes = ponderer.lastNodes;
+        lastTimeMillis = (System.nanoTime() - start) / 1000000L;
+        return move;
+    }
+
+    private static int await(Future<Integer> search){
+        try{
+            return search.get();
+        }
+        catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+        catch (ExecutionException e){
+            throw new IllegalStateException("Search thread failed", e.getCause());
+        }
+    }
+
+    /**
+     * @return the reply the table holds for the position, or else the first in move order, or -1
+     */
+    private int guessReply(Board board, int playerNum){
+        prepare(board);
+        long entry = table.probe(board.getHash() ^ Zobrist.sideKey(playerNum));
+        if (entry != 0){
+            int move = TranspositionTable.moveOf(entry);
+            if (move >= 0 && move < width * height && cells[move / width][move % width] == 0){
+                return move;
+            }
+        }
+        int count = generateMoves(moveBuffers[0], orderBuffers[0], playerNum);
+        return count > 0 ? moveBuffers[0][0] : -1;
+    }
+
+    /**
+     * @return the proven outcome of the last position searched for the
+     *         searching player, or UNKNOWN if it was not solved exactly
+     */
+    public ProofNumberSolver.Outcome getLastOutcome(){
+        return lastOutcome;
+    }
+    /**
+     * @return the score of the last move searched, from the searching player's point of view
+     */
+    public int getLastScore(){
+        return lastScore;
+    }
+    /**
+     * @return the deepest iteration the last search completed
+     */
+    public int getLastDepth(){
+        return lastDepth;
+    }
+    /**
+     * @return the number of positions the last search visited, over all threads
+     */
+    public long getLastNodes(){
+        return lastNodes;
+    }
+    /**
+     * @return the wall-clock time the last search took
+     */
+    public long getLastTimeMillis(){
+        return lastTimeMillis;
+    }
+    /**
+     * @return true if the last searchMove answered with the ponder search's
+     *         move, the depth and node count being that search's too
+     */
+    public boolean isLastFromPonder(){
+        return lastFromPonder;
+    }
+
+    /**
+     * Runs the ProofNumberSolver on half the time budget. A proven loss is
+     * left to the regular search, which picks the move that holds out best
+     * against an opponent who may not find the win.
+     * @return the first move of a proven win or draw, or -1
+     */
+    private int solveEndgame(Board board, int playerNum, long start){
+        if (endgame == null){
+            endgame = new ProofNumberSolver();
+        }
+        ProofNumberSolver.Result result = endgame.solve(board, playerNum, timeBudgetNanos / 2000000L);
+        lastOutcome = result.getOutcome();
+        int[] line = result.getLine();
+        if (line.length == 0 || lastOutcome == ProofNumberSolver.Outcome.LOSS
+                || lastOutcome == ProofNumberSolver.Outcome.UNKNOWN){
+            return -1;
+        }
+        lastScore = lastOutcome == ProofNumberSolver.Outcome.WIN ? WIN_SCORE - line.length : 0;
+        lastDepth = line.length;
+        lastNodes = result.getNodes();
+        lastTimeMillis = (System.nanoTime() - start) / 1000000L;
+        return line[0];
+    }
+
+    private int searchAlone(Board board, int playerNum, long start, int startDepth, AtomicBoolean stop){
+        prepare(board);
+        deadline = start + timeBudgetNanos;
+        stopSignal = stop;
+        stopped = false;
+        nodes = 0;
+        lastScore = 0;
+        lastDepth = 0;
+        lastNodes = 0;
+        lastTimeMillis = 0;
+
+        int[] rootMoves = moveBuffers[0];
+        int moveCount = generateMoves(rootMoves, orderBuffers[0], playerNum);
+        if (moveCount == 0){
+            return -1;
+        }
+        int bestMove = rootMoves[0];
+        int bestScore = 0;
+        int completedDepth = 0;
+        for (int depth = Math.min(startDepth, depthLimit); depth <= depthLimit; depth++){
+            int alpha = -WIN_SCORE - 1;
+            int iterationBest = rootMoves[0];
+            for (int i = 0; i < moveCount; i++){
+                int move = rootMoves[i];
+                int score = scoreMove(move, playerNum, depth, 0, alpha, WIN_SCORE + 1);
+                if (stopped){
+                    break;
+                }
+                if (score > alpha){
+                    alpha = score;
+                    iterationBest = move;
+                }
+            }
+            if (stopped){
+                break;
+            }
+            bestMove = iterationBest;
+            bestScore = alpha;
+            completedDepth = depth;
+            moveToFront(rootMoves, moveCount, bestMove);
+            if (Math.abs(bestScore) >= WIN_SCORE - MAX_DEPTH){
+                break;
+            }
+        }
+        lastScore = bestScore;
+        lastDepth = completedDepth;
+        lastNodes = nodes;
+        lastTimeMillis = (System.nanoTime() - start) / 1000000L;
+        return bestMove;
+    }
+
+    private void prepare(Board board){
+        this.board = board;
+        cells = board.getBoard();
+        height = board.getHeight();
+        width = board.getWidth();
+        int area = width * height;
+        if (moveBuffers.length == 0 || moveBuffers[0].length < area){
+            moveBuffers = new int[MAX_DEPTH + 1][area];
+            orderBuffers = new int[MAX_DEPTH + 1][area];
+            evaluationBuffer = new int[area];
+        }
+    }
+
+    /**
+     * Plays a move, scores it for the player who made it and takes it back.
+     */
+    private int scoreMove(int move, int playerNum, int depth, int ply, int alpha, int beta){
+        board.makeMove(move, playerNum);
+        int score;
+        if (board.lastMoveWins()){
+            score = WIN_SCORE - ply;
+        }
+        else{
+            score = -negamax(3 - playerNum, depth - 1, ply + 1, -beta, -alpha);
+        }
+        board.undoMove();
+        return score;
+    }
+
+    private int negamax(int playerNum, int depth, int ply, int alpha, int beta){
+        nodes++;
+        if ((nodes & 1023) == 0 && (System.nanoTime() > deadline || (stopSignal != null && stopSignal.get())
+                || (cancelSignal != null && cancelSignal.get()))){
+            stopped = true;
+        }
+        if (stopped){
+            return 0;
+        }
+        if (depth == 0){
+            return evaluate(playerNum);
+        }
+        long key = board.getHash() ^ Zobrist.sideKey(playerNum);
+        long entry = table.probe(key);
+        int hashMove = -1;
+        if (entry != 0){
+            hashMove = TranspositionTable.moveOf(entry);
+            if (TranspositionTable.depthOf(entry) >= depth){
+                int score = fromTable(TranspositionTable.scoreOf(entry), ply);
+                int flag = TranspositionTable.flagOf(entry);
+                if (flag == TranspositionTable.EXACT
+                        || (flag == TranspositionTable.LOWER && score >= beta)
+                        || (flag == TranspositionTable.UPPER && score <= alpha)){
+                    return score;
+                }
+            }
+        }
+        int[] moves = moveBuffers[ply];
+        int moveCount = generateMoves(moves, orderBuffers[ply], playerNum);
+        if (moveCount == 0){
+            return 0;
+        }
+        if (hashMove >= 0){
+            moveToFront(moves, moveCount, hashMove);
+        }
+        int originalAlpha = alpha;
+        int bestScore = -WIN_SCORE - 1;
+        int bestMove = -1;
+        for (int i = 0; i < moveCount; i++){
+            int score = scoreMove(moves[i], playerNum, depth, ply, alpha, beta);
+            if (stopped){
+                return 0;
+            }
+            if (score > bestScore){
+                bestScore = score;
+                bestMove = moves[i];
+                if (score > alpha){
+                    alpha = score;
+                    if (alpha >= beta){
+                        break;
+                    }
+                }
+            }
+        }
+        int flag = bestScore <= originalAlpha ? TranspositionTable.UPPER
+                : bestScore >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+        table.store(key, bestMove, toTable(bestScore, ply), depth, flag);
+        return bestScore;
+    }
+
+    /** Win scores are stored relative to the node, not the root */
+    static int toTable(int score, int ply){
+        if (score >= WIN_SCORE - MAX_DEPTH * 2){
+            return score + ply;
+        }
+        if (score <= -WIN_SCORE + MAX_DEPTH * 2){
+            return score - ply;
+        }
+        return score;
+    }
+    static int fromTable(int score, int ply){
+        if (score >= WIN_SCORE - MAX_DEPTH * 2){
+            return score - ply;
+        }
+        if (score <= -WIN_SCORE + MAX_DEPTH * 2){
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * Collects the board's candidate moves, strongest threats first.
+     * A move is worth the threats it makes plus the threats of the
+     * opponent it takes away, both looked up in the PatternTable.
+     * @return the number of moves written to moves
+     */
+    private int generateMoves(int[] moves, int[] order, int playerNum){
+        int count = board.generateMoves(moves);
+        for (int n = 0; n < count; n++){
+            int move = moves[n];
+            int i = move / width;
+            int j = move % width;
+            int value = PatternTable.pointScore(cells, i, j, playerNum)
+                    + PatternTable.pointScore(cells, i, j, 3 - playerNum);
+            int k = n;
+            while (k > 0 && order[k - 1] < value){
+                moves[k] = moves[k - 1];
+                order[k] = order[k - 1];
+                k--;
+            }
+            moves[k] = move;
+            order[k] = value;
+        }
+        return count;
+    }
+
+    private static void moveToFront(int[] moves, int count, int move){
+        for (int i = 0; i < count; i++){
+            if (moves[i] == move){
+                System.arraycopy(moves, 0, moves, 1, i);
+                moves[0] = move;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Scores the position for the given player as the threats it could make
+     * on the candidate cells minus the threats the opponent could make there.
+     */
+    private int evaluate(int playerNum){
+        int count = board.generateMoves(evaluationBuffer);
+        int score = 0;
+        for (int n = 0; n < count; n++){
+            int i = evaluationBuffer[n] / width;
+            int j = evaluationBuffer[n] % width;
+            score += PatternTable.pointScore(cells, i, j, playerNum);
+            score -= PatternTable.pointScore(cells, i, j, 3 - playerNum);
+        }
+        return score;
+    }
+}
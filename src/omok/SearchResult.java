@@ -0,0 +1,51 @@
+package omok;
+
+/**
+ * Outcome of one SearchEngine search
+ */
+public class SearchResult {
+    private final int[] move;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long timeMillis;
+
+    public SearchResult(int[] move, int score, int depth, long nodes, long timeMillis){
+        this.move = move;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.timeMillis = timeMillis;
+    }
+
+    /**
+     * @return the 1-based x, y coordinates of the best move found
+     */
+    public int[] getMove(){
+        return move;
+    }
+    /**
+     * @return the score of the best move from the searching player's point of view
+     */
+    public int getScore(){
+        return score;
+    }
+    /**
+     * @return the deepest fully completed iteration
+     */
+    public int getDepth(){
+        return depth;
+    }
+    /**
+     * @return the number of positions visited
+     */
+    public long getNodes(){
+        return nodes;
+    }
+    /**
+     * @return the wall-clock time the search took
+     */
+    public long getTimeMillis(){
+        return timeMillis;
+    }
+}
@@ -0,0 +1,180 @@
+package omok;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Hosts many independent games at once. Every session is a GameController
+ * with its own UserInterfaceable, running on its own thread until its user
+ * exits. On Java 21 and later each session gets a virtual thread, so
+ * thousands of sessions waiting for input cost little more than their
+ * boards; on older runtimes each session gets a platform thread.
+ * <p>
+ * Unless given their own factory, the computer players of all sessions
+ * borrow their engines from one EnginePool, so the memory and CPU given
+ * to search stay the same however many sessions are open.
+ */
+public class SessionManager implements AutoCloseable {
+    /** Engines the default computer players share, by default one for each processor */
+    public static final int DEFAULT_ENGINES = Integer.getInteger("omok.engines", Runtime.getRuntime().availableProcessors());
+
+    private final ExecutorService executor;
+    private final IntFunction<Playable> computer;
+    private final GameJournal journal;
+    /** Lends engines to the default computer players, or null if there is a factory */
+    private final EnginePool engines;
+    /** Whether engines was created here and is closed with the manager */
+    private final boolean ownsEngines;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+
+    public SessionManager(){
+        this(null);
+    }
+    /**
+     * @param computer creates the computer players of every session, or null for the default ComputerPlayer
+     */
+    public SessionManager(IntFunction<Playable> computer){
+        this(computer, null);
+    }
+    /**
+     * @param computer creates the computer players of every session, or null for
+     *                 ComputerPlayers sharing a pool of DEFAULT_ENGINES engines
+     * @param journal records the games of every session, or null
+     */
+    public SessionManager(IntFunction<Playable> computer, GameJournal journal){
+        this(computer, journal, computer == null
+                ? new EnginePool(DEFAULT_ENGINES, ComputerPlayer.DEFAULT_TIME_BUDGET_MILLIS, SearchEngine.DEFAULT_TABLE_MEGABYTES)
+                : null, true);
+    }
+    /**
+     * Runs sessions whose computer players share the given engines
+     * @param engines lends an engine to a computer player for each of its moves; left open on close
+     * @param journal records the games of every session, or null
+     */
+    public SessionManager(EnginePool engines, GameJournal journal){
+        this(null, journal, engines, false);
+    }
+    private SessionManager(IntFunction<Playable> computer, GameJournal journal, EnginePool engines, boolean ownsEngines){
+        this.computer = computer;
+        this.journal = journal;
+        this.engines = engines;
+        this.ownsEngines = ownsEngines;
+        executor = newSessionExecutor();
+    }
+
+    /**
+     * Starts a session that plays games through the given interface until
+     * its user picks Exit Game
+     * @param ui the session's own interface, not shared with any other session
+     * @return completes when the session ends, exceptionally if its game failed
+     */
+    public Future<?> open(UserInterfaceable ui){
+        return open(ui, null);
+    }
+    /**
+     * Same as {@link #open(UserInterfaceable)} with a hook for releasing
+     * what the session used once it has ended
+     * @param onEnd runs on the session's thread after its last game, or null
+     */
+    public Future<?> open(UserInterfaceable ui, Runnable onEnd){
+        active.incrementAndGet();
+        return executor.submit(() -> {
+            try{
+                IntFunction<Playable> players = computer != null
+                        ? computer
+                        : playerNum -> new ComputerPlayer(playerNum, ui, engines);
+                new GameController(ui, players, journal).start();
+                completed.incrementAndGet();
+            }
+            catch (RuntimeException e){
+                failed.incrementAndGet();
+                throw e;
+            }
+            finally{
+                active.decrementAndGet();
+                if (onEnd != null){
+                    onEnd.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * @return the number of sessions that have been opened and not yet ended
+     */
+    public int getActiveSessions(){
+        return active.get();
+    }
+    /**
+     * @return the number of sessions that ended because their user exited
+     */
+    public int getCompletedSessions(){
+        return completed.get();
+    }
+    /**
+     * @return the number of sessions that ended with an exception
+     */
+    public int getFailedSessions(){
+        return failed.get();
+    }
+    /**
+     * @return true if sessions run on virtual threads
+     */
+    public static boolean usesVirtualThreads(){
+        return virtualThreadFactory() != null;
+    }
+
+    /**
+     * Stops accepting sessions and waits for the open ones to end,
+     * then shuts down the engines the manager created
+     */
+    @Override
+    public void close(){
+        executor.shutdown();
+        try{
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)){
+                // Sessions end when their users exit, however long that takes
+            }
+        }
+        catch (InterruptedException e){
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        if (ownsEngines && engines != null){
+            engines.close();
+        }
+    }
+
+    private static ExecutorService newSessionExecutor(){
+        Method factory = virtualThreadFactory();
+        if (factory != null){
+            try{
+                return (ExecutorService) factory.invoke(null);
+            }
+            catch (ReflectiveOperationException e){
+                throw new IllegalStateException("Cannot create virtual threads", e);
+            }
+        }
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(null, runnable, "omok-session", 256 * 1024);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Executors.newVirtualThreadPerTaskExecutor, looked up so the game still builds for Java 17 */
+    private static Method virtualThreadFactory(){
+        try{
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        }
+        catch (NoSuchMethodException e){
+            return null;
+        }
+    }
+}
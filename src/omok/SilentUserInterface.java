@@ -0,0 +1,35 @@
+package omok;
+
+/**
+ * User interface that shows nothing and asks nothing, for games played
+ * between computer players without a console. It has no one to ask for a
+ * move, so getStonePlacement always answers null; a game that needs input
+ * from it must override that method.
+ */
+public class SilentUserInterface implements UserInterfaceable {
+    @Override
+    public void drawBoard(int[][] board){}
+    /**
+     * @return null, there being no one to ask
+     */
+    @Override
+    public int[] getStonePlacement(String playerName){
+        return null;
+    }
+    @Override
+    public void displayString(String toDisplay){}
+    @Override
+    public int getGameMode(){
+        return 3;
+    }
+    @Override
+    public String getPlayerName(int playerNum){
+        return "Player " + playerNum;
+    }
+    @Override
+    public void drawVictoryScreen(String playerName){}
+    @Override
+    public void drawDefeatScreen(){}
+    @Override
+    public void drawTieScreen(){}
+}
@@ -0,0 +1,112 @@
+package omok;
+import java.util.Arrays;
+
+/**
+ * The 8 symmetries of a square board: every combination of flipping the
+ * rows, flipping the columns and swapping rows with columns. A board that
+ * is not square only has the 4 without the swap. Positions that are
+ * rotations or reflections of each other share one canonical hash.
+ */
+public final class Symmetry {
+    /** Number of symmetries of a square board */
+    public static final int COUNT = 8;
+    private static final int FLIP_ROWS = 1;
+    private static final int FLIP_COLUMNS = 2;
+    private static final int TRANSPOSE = 4;
+    private Symmetry(){}
+
+    /**
+     * @param symmetry 0 to COUNT - 1, where 0 leaves the board as it is
+     * @return true if the symmetry maps a board of this size onto itself
+     */
+    public static boolean fits(int symmetry, int height, int width){
+        return (symmetry & TRANSPOSE) == 0 || height == width;
+    }
+
+    /**
+     * @param symmetry a symmetry that fits the board
+     * @param x 0-based row
+     * @param y 0-based column
+     * @return the 0-based cell index (row * width + column) the cell is mapped to
+     */
+    public static int apply(int symmetry, int x, int y, int height, int width){
+        if ((symmetry & TRANSPOSE) != 0){
+            int swap = x;
+            x = y;
+            y = swap;
+        }
+        if ((symmetry & FLIP_ROWS) != 0){
+            x = height - 1 - x;
+        }
+        if ((symmetry & FLIP_COLUMNS) != 0){
+            y = width - 1 - y;
+        }
+        return x * width + y;
+    }
+
+    /**
+     * Undoes {@link #apply}
+     * @param x 0-based row of the mapped cell
+     * @param y 0-based column of the mapped cell
+     * @return the 0-based cell index the symmetry maps onto (x, y)
+     */
+    public static int invert(int symmetry, int x, int y, int height, int width){
+        if ((symmetry & FLIP_ROWS) != 0){
+            x = height - 1 - x;
+        }
+        if ((symmetry & FLIP_COLUMNS) != 0){
+            y = width - 1 - y;
+        }
+        if ((symmetry & TRANSPOSE) != 0){
+            int swap = x;
+            x = y;
+            y = swap;
+        }
+        return x * width + y;
+    }
+
+    /**
+     * @return the smallest Zobrist hash of the board under any of its symmetries
+     */
+    public static long canonicalHash(Board board){
+        long[] hashes = new long[COUNT];
+        return hashes[canonicalSymmetry(board, hashes)];
+    }
+    /**
+     * Finds the symmetry that gives the canonical hash, without allocating
+     * @param hashes receives the hash of the board under each symmetry
+     * @return the symmetry whose hash is the canonical one
+     */
+    public static int canonicalSymmetry(Board board, long[] hashes){
+        int height = board.getHeight();
+        int width = board.getWidth();
+        int[][] cells = board.getBoard();
+        Arrays.fill(hashes, 0);
+        for (int i = 0; i < height; i++){
+            for (int j = 0; j < width; j++){
+                if (cells[i][j] != 0){
+                    for (int s = 0; s < COUNT; s++){
+                        if (fits(s, height, width)){
+                            hashes[s] ^= Zobrist.key(apply(s, i, j, height, width), cells[i][j]);
+                        }
+                    }
+                }
+            }
+        }
+        return smallest(hashes, height, width);
+    }
+
+    /**
+     * @param hashes the hash of a position under each symmetry
+     * @return the symmetry with the smallest hash among those that fit the board
+     */
+    static int smallest(long[] hashes, int height, int width){
+        int canonical = 0;
+        for (int s = 1; s < COUNT; s++){
+            if (fits(s, height, width) && Long.compareUnsigned(hashes[s], hashes[canonical]) < 0){
+                canonical = s;
+            }
+        }
+        return canonical;
+    }
+}
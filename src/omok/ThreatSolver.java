@@ -0,0 +1,466 @@
+package omok;
+
+import java.util.Arrays;
+
+/**
+ * Threat-space search for forced wins by continuous fours (VCF) and by
+ * fours and open threes (VCT).
+ * The attacker only plays moves that make a threat. A four leaves the
+ * defender one forced reply. An open three leaves the defender the moves
+ * that stop every open four it threatens, and the moves that make a four
+ * of the defender's own, which the attacker must block before going on;
+ * any other reply loses to the open four, so it is not searched.
+ * The search looks for a VCF first and only then for a VCT, each with
+ * the full node limit. Every threat is tried at every step, so within the
+ * ply and node limits the search is complete: when it answers that there
+ * is no win, none that short exists. It has no dependency or combination
+ * stage: threats on unrelated lines are not combined ahead of time, the
+ * tree is narrowed only by the attacker playing threats and the defender
+ * playing replies to them.
+ * <p>
+ * Once a board of the same size has been seen, {@link #search} allocates
+ * nothing, so the engine can call it before every search.
+ */
+public class ThreatSolver {
+    /** Plies searched by default, attacker and defender moves both counting */
+    public static final int DEFAULT_MAX_PLIES = 15;
+    /** Positions visited by default before giving up, for each of the VCF and VCT searches */
+    public static final int DEFAULT_MAX_NODES = 20000;
+
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+    private static final int FAILURE_TABLE_SIZE = 1 << 12;
+
+    private final int maxPlies;
+    private final int maxNodes;
+    private final boolean threes;
+    private final int[] line;
+    private final long[] failedKeys = new long[FAILURE_TABLE_SIZE];
+    private final byte[] failedPlies = new byte[FAILURE_TABLE_SIZE];
+
+    private Board board;
+    private int[][] cells;
+    private int width;
+    private int height;
+    private int[][] candidates = new int[0][];
+    private int[][] openFours = new int[0][];
+    private int lineLength;
+    private long nodes;
+    private boolean tryingThrees;
+    private int firstFive;
+    private long deadline;
+    private boolean outOfTime;
+
+    public ThreatSolver(){
+        this(DEFAULT_MAX_PLIES, DEFAULT_MAX_NODES, true);
+    }
+    /**
+     * @param maxPlies longest winning sequence to look for, in plies
+     * @param maxNodes positions to visit before answering that there is none
+     */
+    public ThreatSolver(int maxPlies, int maxNodes){
+        this(maxPlies, maxNodes, true);
+    }
+    /**
+     * @param maxPlies longest winning sequence to look for, in plies
+     * @param maxNodes positions to visit before answering that there is none
+     * @param threes whether to look for a VCT once there is no VCF
+     */
+    public ThreatSolver(int maxPlies, int maxNodes, boolean threes){
+        this.maxPlies = Math.min(maxPlies, Byte.MAX_VALUE);
+        this.maxNodes = maxNodes;
+        this.threes = threes;
+        line = new int[this.maxPlies + 2];
+    }
+
+    /**
+     * Looks for a forced win by continuous fours, then by fours and threes.
+     * @param board the position, left as it was found
+     * @param playerNum the attacking player, who is to move
+     * @return the winning sequence as 0-based cell indices (row * width + column),
+     *         attacker and defender moves alternating and ending in the attacker's five,
+     *         or null if there is none within the ply limit. Where the defender has
+     *         several replies to a three, the sequence follows one of them.
+     */
+    public int[] solve(Board board, int playerNum){
+        int length = search(board, playerNum);
+        return length < 0 ? null : Arrays.copyOf(line, length);
+    }
+
+    /**
+     * Same as {@link #solve} without allocating. The sequence is left in getLine.
+     * @return the length of the winning sequence, or -1 if there is none
+     */
+    public int search(Board board, int playerNum){
+        return search(board, playerNum, Long.MAX_VALUE);
+    }
+    /**
+     * Same as {@link #search(Board, int)}, giving up once the time is spent as well
+     * @param timeLimitMillis the longest the search may take
+     */
+    public int search(Board board, int playerNum, long timeLimitMillis){
+        deadline = timeLimitMillis >= Long.MAX_VALUE / 1000000L
+                ? Long.MAX_VALUE
+                : System.nanoTime() + timeLimitMillis * 1000000L;
+        outOfTime = false;
+        this.board = board;
+        cells = board.getBoard();
+        width = board.getWidth();
+        height = board.getHeight();
+        int area = width * height;
+        int levels = maxPlies + 3;
+        if (candidates.length == 0 || candidates[0].length < area){
+            candidates = new int[levels][area];
+            openFours = new int[levels][area];
+        }
+        if (run(playerNum, false)){
+            return lineLength;
+        }
+        return threes && !outOfTime && run(playerNum, true) ? lineLength : -1;
+    }
+
+    /**
+     * @return the sequence found by the last search, valid up to its length
+     */
+    public int[] getLine(){
+        return line;
+    }
+    /**
+     * @return the number of positions the last search visited, over both its VCF and VCT parts
+     */
+    public long getNodes(){
+        return nodes;
+    }
+
+    /** Whether the search must stop, the node limit or the deadline being reached */
+    private boolean exhausted(long limit){
+        if (!outOfTime && (nodes & 255) == 0 && System.nanoTime() > deadline){
+            outOfTime = true;
+        }
+        return outOfTime || nodes > limit;
+    }
+
+    private boolean run(int playerNum, boolean withThrees){
+        tryingThrees = withThrees;
+        Arrays.fill(failedPlies, (byte) 0);
+        if (!withThrees){
+            nodes = 0;
+        }
+        long limit = nodes + maxNodes;
+        lineLength = 0;
+        return attack(playerNum, maxPlies, 0, limit);
+    }
+
+    /** The attacker is to move and looks for a threat that wins */
+    private boolean attack(int attacker, int pliesLeft, int level, long limit){
+        nodes++;
+        if (pliesLeft <= 0 || exhausted(limit)){
+            return false;
+        }
+        int defender = 3 - attacker;
+        int[] moves = candidates[level];
+        int count = board.generateMoves(moves);
+        int forced = -1;
+        for (int n = 0; n < count; n++){
+            if (threatAt(moves[n], attacker) == PatternTable.FIVE){
+                line[lineLength++] = moves[n];
+                return true;
+            }
+        }
+        for (int n = 0; n < count; n++){
+            if (threatAt(moves[n], defender) == PatternTable.FIVE){
+                if (forced >= 0){
+                    // Two fives to stop: only a five of our own would have helped
+                    return false;
+                }
+                forced = moves[n];
+            }
+        }
+        if (pliesLeft < 3 || hasFailed(attacker, pliesLeft)){
+            return false;
+        }
+        for (int n = 0; n < count; n++){
+            int move = moves[n];
+            if (forced >= 0 && move != forced){
+                continue;
+            }
+            int threat = threatAt(move, attacker);
+            if (threat != PatternTable.FOUR && threat != PatternTable.OPEN_FOUR){
+                continue;
+            }
+            board.makeMove(move, attacker);
+            int completions = fivesAround(move, attacker);
+            int block = firstFive;
+            boolean won = false;
+            if (completions >= 2){
+                // The defender can only stop one of the fives
+                int five = secondFive(move, block, attacker);
+                line[lineLength++] = move;
+                line[lineLength++] = block;
+                line[lineLength++] = five;
+                won = true;
+            }
+            else if (completions == 1){
+                board.makeMove(block, defender);
+                line[lineLength++] = move;
+                line[lineLength++] = block;
+                won = !board.lastMoveWins()
+                        && attack(attacker, pliesLeft - 2, level + 1, limit);
+                if (!won){
+                    lineLength -= 2;
+                }
+                board.undoMove();
+            }
+            board.undoMove();
+            if (won){
+                return true;
+            }
+        }
+        if (tryingThrees && pliesLeft >= 5){
+            for (int n = 0; n < count; n++){
+                int move = moves[n];
+                if ((forced >= 0 && move != forced) || threatAt(move, attacker) != PatternTable.OPEN_THREE){
+                    continue;
+                }
+                board.makeMove(move, attacker);
+                line[lineLength++] = move;
+                boolean won = defend(attacker, pliesLeft - 1, level + 1, limit);
+                if (!won){
+                    lineLength--;
+                }
+                board.undoMove();
+                if (won){
+                    return true;
+                }
+            }
+        }
+        recordFailure(attacker, pliesLeft);
+        return false;
+    }
+
+    /**
+     * The defender is to move against an attacker threat, and the attacker
+     * wins only if every reply that stops it still loses
+     */
+    private boolean defend(int attacker, int pliesLeft, int level, long limit){
+        nodes++;
+        if (pliesLeft <= 0 || exhausted(limit)){
+            return false;
+        }
+        int defender = 3 - attacker;
+        int[] moves = candidates[level];
+        int count = board.generateMoves(moves);
+        int[] threatened = openFours[level];
+        int threats = 0;
+        int fives = 0;
+        int five = -1;
+        int otherFive = -1;
+        for (int n = 0; n < count; n++){
+            if (threatAt(moves[n], defender) == PatternTable.FIVE){
+                return false;
+            }
+        }
+        for (int n = 0; n < count; n++){
+            int threat = threatAt(moves[n], attacker);
+            if (threat == PatternTable.FIVE){
+                otherFive = five;
+                five = moves[n];
+                fives++;
+            }
+            else if (threat == PatternTable.OPEN_FOUR){
+                threatened[threats++] = moves[n];
+            }
+        }
+        if (fives >= 2){
+            line[lineLength++] = otherFive;
+            line[lineLength++] = five;
+            return true;
+        }
+        if (fives == 1){
+            // A four of the defender's own would not help against a five
+            board.makeMove(five, defender);
+            line[lineLength++] = five;
+            boolean won = attack(attacker, pliesLeft - 1, level + 1, limit);
+            if (!won){
+                lineLength--;
+            }
+            board.undoMove();
+            return won;
+        }
+        if (threats == 0){
+            return false;
+        }
+        int start = lineLength;
+        int losing = -1;
+        boolean defended = false;
+        for (int n = 0; n < count; n++){
+            int reply = moves[n];
+            boolean counter = threatAt(reply, defender) >= PatternTable.FOUR;
+            if (!counter && !inReach(reply, threatened, threats)){
+                // Too far from every open four to stop one
+                if (losing < 0){
+                    losing = reply;
+                }
+                continue;
+            }
+            board.makeMove(reply, defender);
+            if (!counter && stillThreatened(threatened, threats, reply, attacker)){
+                // The attacker makes an open four and wins
+                board.undoMove();
+                if (losing < 0){
+                    losing = reply;
+                }
+                continue;
+            }
+            defended = true;
+            lineLength = start;
+            line[lineLength++] = reply;
+            boolean won = counter
+                    ? answerFour(attacker, reply, pliesLeft - 1, level + 1, limit)
+                    : attack(attacker, pliesLeft - 1, level + 1, limit);
+            board.undoMove();
+            if (!won){
+                lineLength = start;
+                return false;
+            }
+        }
+        if (!defended){
+            board.makeMove(losing, defender);
+            line[lineLength++] = losing;
+            boolean won = attack(attacker, pliesLeft - 1, level + 1, limit);
+            if (!won){
+                lineLength--;
+            }
+            board.undoMove();
+            return won;
+        }
+        return true;
+    }
+
+    /** The defender has just made a four, which the attacker must block unless it has a five */
+    private boolean answerFour(int attacker, int four, int pliesLeft, int level, long limit){
+        nodes++;
+        if (pliesLeft <= 0 || exhausted(limit)){
+            return false;
+        }
+        int[] moves = candidates[level];
+        int count = board.generateMoves(moves);
+        for (int n = 0; n < count; n++){
+            if (threatAt(moves[n], attacker) == PatternTable.FIVE){
+                line[lineLength++] = moves[n];
+                return true;
+            }
+        }
+        if (fivesAround(four, 3 - attacker) != 1){
+            return false;
+        }
+        int block = firstFive;
+        board.makeMove(block, attacker);
+        line[lineLength++] = block;
+        boolean won = defend(attacker, pliesLeft - 1, level + 1, limit);
+        if (!won){
+            lineLength--;
+        }
+        board.undoMove();
+        return won;
+    }
+
+    /** Whether the cell is on a line through one of the threatened cells, close enough to change its threat */
+    private boolean inReach(int cell, int[] threatened, int threats){
+        int x = cell / width;
+        int y = cell % width;
+        for (int n = 0; n < threats; n++){
+            int dx = threatened[n] / width - x;
+            int dy = threatened[n] % width - y;
+            if (Math.max(Math.abs(dx), Math.abs(dy)) <= 4 && (dx == 0 || dy == 0 || Math.abs(dx) == Math.abs(dy))){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Whether the attacker can still make an open four on one of the threatened cells */
+    private boolean stillThreatened(int[] threatened, int threats, int reply, int attacker){
+        for (int n = 0; n < threats; n++){
+            if (threatened[n] != reply && threatAt(threatened[n], attacker) >= PatternTable.OPEN_FOUR){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Counts the empty cells on the lines through a stone that would complete a five,
+     * leaving the first in firstFive
+     */
+    private int fivesAround(int move, int playerNum){
+        int x = move / width;
+        int y = move % width;
+        firstFive = -1;
+        int completions = 0;
+        for (int[] direction : DIRECTIONS){
+            for (int k = -4; k <= 4; k++){
+                int i = x + k * direction[0];
+                int j = y + k * direction[1];
+                if (k == 0 || i < 0 || j < 0 || i >= height || j >= width || cells[i][j] != 0){
+                    continue;
+                }
+                int cell = i * width + j;
+                if (cell != firstFive && threatAt(cell, playerNum) == PatternTable.FIVE){
+                    if (firstFive < 0){
+                        firstFive = cell;
+                    }
+                    completions++;
+                }
+            }
+        }
+        return completions;
+    }
+
+    private int secondFive(int move, int first, int playerNum){
+        int x = move / width;
+        int y = move % width;
+        for (int[] direction : DIRECTIONS){
+            for (int k = -4; k <= 4; k++){
+                int i = x + k * direction[0];
+                int j = y + k * direction[1];
+                if (k == 0 || i < 0 || j < 0 || i >= height || j >= width || cells[i][j] != 0){
+                    continue;
+                }
+                int cell = i * width + j;
+                if (cell != first && threatAt(cell, playerNum) == PatternTable.FIVE){
+                    return cell;
+                }
+            }
+        }
+        return first;
+    }
+
+    /** Strongest threat an attacker stone on the empty cell would make */
+    private int threatAt(int cell, int playerNum){
+        int x = cell / width;
+        int y = cell % width;
+        int best = PatternTable.NONE;
+        for (int[] direction : DIRECTIONS){
+            int threat = PatternTable.threat(PatternTable.index(cells, x, y, direction[0], direction[1], playerNum));
+            if (threat > best){
+                best = threat;
+            }
+        }
+        return best;
+    }
+
+    private boolean hasFailed(int attacker, int pliesLeft){
+        long key = failureKey(attacker);
+        int i = (int) key & (FAILURE_TABLE_SIZE - 1);
+        return failedKeys[i] == key && failedPlies[i] >= pliesLeft;
+    }
+    private void recordFailure(int attacker, int pliesLeft){
+        long key = failureKey(attacker);
+        int i = (int) key & (FAILURE_TABLE_SIZE - 1);
+        failedKeys[i] = key;
+        failedPlies[i] = (byte) pliesLeft;
+    }
+    private long failureKey(int attacker){
+        return board.getHash() ^ Zobrist.sideKey(attacker);
+    }
+}
@@ -0,0 +1,216 @@
+package omok;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
+
+/**
+ * Plays many games between two Playables at once without a user interface.
+ * Games are played in pairs from the same random opening, with the
+ * candidate taking each colour once, and spread over a fixed thread pool.
+ * The SPRT is checked after every game and the tournament stops early once
+ * it reaches a verdict. A game that throws is not scored; it is counted
+ * as failed and the first exception is kept for the caller to inspect.
+ */
+public class Tournament {
+    /** Elo differences and error rates of the default SPRT */
+    public static final double ELO0 = 0;
+    public static final double ELO1 = 10;
+    public static final double ALPHA = 0.05;
+    public static final double BETA = 0.05;
+
+    private final IntFunction<Playable> candidate;
+    private final IntFunction<Playable> baseline;
+    private final int boardSize;
+    private final int openingStones;
+    private final int threads;
+
+    private final AtomicInteger wins = new AtomicInteger();
+    private final AtomicInteger draws = new AtomicInteger();
+    private final AtomicInteger losses = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicReference<RuntimeException> firstFailure = new AtomicReference<>();
+    private volatile boolean decided;
+
+    /**
+     * @param candidate creates the player under test for a given player number
+     * @param baseline creates the player to compare against for a given player number
+     * @param boardSize width and height of the board
+     * @param openingStones number of random stones placed before the players take over
+     * @param threads number of games played at the same time
+     */
+    public Tournament(IntFunction<Playable> candidate, IntFunction<Playable> baseline,
+                      int boardSize, int openingStones, int threads){
+        this.candidate = candidate;
+        this.baseline = baseline;
+        this.boardSize = boardSize;
+        this.openingStones = openingStones;
+        this.threads = threads;
+    }
+
+    /**
+     * Plays up to the given number of games, stopping early once the SPRT
+     * accepts or rejects the candidate
+     * @param games maximum number of games, rounded up to an even number
+     * @param seed seed of the random openings
+     * @return the tally from the candidate's point of view
+     */
+    public TournamentResult run(int games, long seed){
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Random random = new Random(seed);
+        for (int pair = 0; pair < (games + 1) / 2; pair++){
+            long openingSeed = random.nextLong();
+            pool.execute(() -> playGame(openingSeed, 1));
+            pool.execute(() -> playGame(openingSeed, 2));
+        }
+        pool.shutdown();
+        try{
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        }
+        catch (InterruptedException e){
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        return result();
+    }
+
+    /**
+     * @return the tally of the games finished so far
+     */
+    public TournamentResult result(){
+        return new TournamentResult(wins.get(), draws.get(), losses.get());
+    }
+
+    /**
+     * @return the number of games that ended with an exception and were not scored
+     */
+    public int getFailedGames(){
+        return failures.get();
+    }
+    /**
+     * @return the exception of the first failed game, or null if none failed
+     */
+    public RuntimeException getFirstFailure(){
+        return firstFailure.get();
+    }
+
+    private void playGame(long openingSeed, int candidateNum){
+        if (decided){
+            return;
+        }
+        int winner;
+        try{
+            winner = play(openingSeed, candidateNum);
+        }
+        catch (RuntimeException e){
+            firstFailure.compareAndSet(null, e);
+            failures.incrementAndGet();
+            return;
+        }
+        if (winner == candidateNum){
+            wins.incrementAndGet();
+        }
+        else if (winner == 0){
+            draws.incrementAndGet();
+        }
+        else{
+            losses.incrementAndGet();
+        }
+        if (result().sprt(ELO0, ELO1, ALPHA, BETA) != TournamentResult.Verdict.CONTINUE){
+            decided = true;
+        }
+    }
+
+    /**
+     * Plays one game from where the opening left off, then shuts down the
+     * computer players so their engines' threads end with the game
+     * @return the number of the winning player, or 0 for a draw
+     */
+    private int play(long openingSeed, int candidateNum){
+        Playable[] players = new Playable[3];
+        try{
+            players[candidateNum] = candidate.apply(candidateNum);
+            players[3 - candidateNum] = baseline.apply(3 - candidateNum);
+            Board board = new Board(boardSize, boardSize);
+            int playerNum = placeOpening(board, new Random(openingSeed));
+
+            int area = boardSize * boardSize;
+            while (board.getStoneCount() < area){
+                int[] move = players[playerNum].getStonePlacement(board.getSnapshot());
+                if (move == null || !board.placeStone(move[0], move[1], playerNum)){
+                    // An illegal move forfeits the game
+                    return 3 - playerNum;
+                }
+                if (board.isWinningStone(move[0], move[1])){
+                    return playerNum;
+                }
+                playerNum = 3 - playerNum;
+            }
+            return 0;
+        }
+        finally{
+            for (Playable player : players){
+                if (player instanceof ComputerPlayer){
+                    ((ComputerPlayer) player).shutdown();
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops alternating stones near the centre, player 1 first, none of them completing five
+     * @return the player to move after the opening
+     */
+    private int placeOpening(Board board, Random random){
+        int placed = 0;
+        int playerNum = 1;
+        int spread = Math.max(2, boardSize / 4);
+        while (placed < openingStones && board.getStoneCount() < boardSize * boardSize){
+            int x = boardSize / 2 + 1 + random.nextInt(2 * spread + 1) - spread;
+            int y = boardSize / 2 + 1 + random.nextInt(2 * spread + 1) - spread;
+            if (!board.placeStone(x, y, playerNum)){
+                continue;
+            }
+            if (board.isWinningStone(x, y)){
+                board.removeStone(x, y);
+                continue;
+            }
+            placed++;
+            playerNum = 3 - playerNum;
+        }
+        return playerNum;
+    }
+
+    /**
+     * Runs a tournament between two time budgets of the computer player.
+     * Usage: Tournament [games] [candidate millis per move] [baseline millis per move] [board size] [threads]
+     */
+    public static void main(String[] args){
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        long candidateMillis = args.length > 1 ? Long.parseLong(args[1]) : 100;
+        long baselineMillis = args.length > 2 ? Long.parseLong(args[2]) : 50;
+        int boardSize = args.length > 3 ? Integer.parseInt(args[3]) : 15;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+        UserInterfaceable silent = new SilentUserInterface();
+        Tournament tournament = new Tournament(
+                playerNum -> new ComputerPlayer(playerNum, silent, new SearchEngine(candidateMillis, 1)),
+                playerNum -> new ComputerPlayer(playerNum, silent, new SearchEngine(baselineMillis, 1)),
+                boardSize, 4, threads);
+        long start = System.nanoTime();
+        TournamentResult result = tournament.run(games, System.nanoTime());
+        System.out.println(result);
+        if (tournament.getFailedGames() > 0){
+            System.out.println(tournament.getFailedGames() + " games failed and were not scored, the first with "
+                    + tournament.getFirstFailure());
+        }
+        System.out.printf("SPRT [%.0f, %.0f]: LLR %.2f, %s%n", ELO0, ELO1,
+                result.getLogLikelihoodRatio(ELO0, ELO1), result.sprt(ELO0, ELO1, ALPHA, BETA));
+        System.out.printf("%d games in %.1f s on %d threads%n", result.getGames(),
+                (System.nanoTime() - start) / 1e9, threads);
+    }
+}
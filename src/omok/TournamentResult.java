@@ -0,0 +1,131 @@
+package omok;
+
+/**
+ * Win/draw/loss tally of a candidate player against a baseline, with the
+ * Elo difference it implies and a sequential probability ratio test (SPRT)
+ * of whether the candidate is stronger.
+ */
+public class TournamentResult {
+    /** Outcome of the SPRT */
+    public enum Verdict {
+        /** The candidate is at least elo1 stronger, H1 accepted */
+        ACCEPT,
+        /** The candidate is at most elo0 stronger, H1 rejected */
+        REJECT,
+        /** Not enough games to decide yet */
+        CONTINUE
+    }
+
+    private final int wins;
+    private final int draws;
+    private final int losses;
+
+    public TournamentResult(int wins, int draws, int losses){
+        this.wins = wins;
+        this.draws = draws;
+        this.losses = losses;
+    }
+
+    public int getWins(){
+        return wins;
+    }
+    public int getDraws(){
+        return draws;
+    }
+    public int getLosses(){
+        return losses;
+    }
+    public int getGames(){
+        return wins + draws + losses;
+    }
+
+    /**
+     * @return the candidate's average score per game, a draw counting half a win
+     */
+    public double getScore(){
+        int games = getGames();
+        return games == 0 ? 0.5 : (wins + draws / 2.0) / games;
+    }
+
+    /**
+     * @return the Elo difference between candidate and baseline implied by the score
+     */
+    public double getEloDifference(){
+        return elo(getScore());
+    }
+
+    /**
+     * @return half the width of the 95% confidence interval of the Elo difference
+     */
+    public double getEloError(){
+        int games = getGames();
+        if (games == 0){
+            return Double.POSITIVE_INFINITY;
+        }
+        double score = getScore();
+        double deviation = Math.sqrt(variance(score) / games);
+        return (elo(Math.min(score + 1.96 * deviation, 0.999)) - elo(Math.max(score - 1.96 * deviation, 0.001))) / 2;
+    }
+
+    /**
+     * Log-likelihood ratio of H1 (candidate is elo1 stronger) against
+     * H0 (candidate is elo0 stronger), using the normal approximation of
+     * the score distribution. The variance counts half a win and half a
+     * loss more than were played, so a one-sided result such as all wins
+     * still has some spread and moves the ratio instead of leaving it at 0.
+     */
+    public double getLogLikelihoodRatio(double elo0, double elo1){
+        int games = getGames();
+        if (games == 0){
+            return 0;
+        }
+        double score = getScore();
+        double variance = ((wins + 0.5) * (1 - score) * (1 - score) + draws * (0.5 - score) * (0.5 - score)
+                + (losses + 0.5) * score * score) / (games + 1);
+        double score0 = expectedScore(elo0);
+        double score1 = expectedScore(elo1);
+        return games * (score1 - score0) * (2 * score - score0 - score1) / (2 * variance);
+    }
+
+    /**
+     * @param elo0 Elo difference of the null hypothesis
+     * @param elo1 Elo difference of the alternative hypothesis
+     * @param alpha chance of accepting H1 when H0 holds
+     * @param beta chance of rejecting H1 when it holds
+     * @return the verdict of the SPRT after the games played so far
+     */
+    public Verdict sprt(double elo0, double elo1, double alpha, double beta){
+        double ratio = getLogLikelihoodRatio(elo0, elo1);
+        if (ratio >= Math.log((1 - beta) / alpha)){
+            return Verdict.ACCEPT;
+        }
+        if (ratio <= Math.log(beta / (1 - alpha))){
+            return Verdict.REJECT;
+        }
+        return Verdict.CONTINUE;
+    }
+
+    @Override
+    public String toString(){
+        return String.format("+%d =%d -%d  score %.3f  Elo %+.1f +/- %.1f",
+                wins, draws, losses, getScore(), getEloDifference(), getEloError());
+    }
+
+    private double variance(double score){
+        int games = getGames();
+        return (wins * (1 - score) * (1 - score) + draws * (0.5 - score) * (0.5 - score)
+                + losses * score * score) / games;
+    }
+    private static double expectedScore(double elo){
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+    private static double elo(double score){
+        if (score <= 0){
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (score >= 1){
+            return Double.POSITIVE_INFINITY;
+        }
+        return -400 * Math.log10(1 / score - 1);
+    }
+}
@@ -0,0 +1,114 @@
+package omok;
+
+/**
+ * Fixed-size transposition table backed by two primitive arrays.
+ * The table holds a power of two number of entries grouped in buckets of two:
+ * the first slot of a bucket keeps the deepest result seen for it, the second
+ * always takes the latest one. Memory use never changes after construction.
+ * <p>
+ * The table may be shared by several search threads without locking. Each
+ * slot stores its key xor-ed with its data, so a slot torn by two threads
+ * writing at once no longer matches its key and simply reads as a miss.
+ */
+public class TranspositionTable {
+    /** Bound flags stored with an entry, never 0 so that an entry is never all zero */
+    public static final int EXACT = 1;
+    public static final int LOWER = 2;
+    public static final int UPPER = 3;
+
+    private static final int MOVE_BITS = 22;
+    private static final long MOVE_MASK = (1L << MOVE_BITS) - 1;
+    /** Bytes used by one entry: a key and a data word */
+    private static final int ENTRY_BYTES = 16;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int bucketMask;
+
+    /**
+     * @param megabytes the memory to use, rounded down to a power of two number of entries
+     */
+    public TranspositionTable(int megabytes){
+        long entries = Long.highestOneBit(Math.max(2L, (long) megabytes * 1024 * 1024 / ENTRY_BYTES));
+        entries = Math.min(entries, 1L << 30);
+        keys = new long[(int) entries];
+        data = new long[(int) entries];
+        bucketMask = (int) entries - 2;
+    }
+
+    /**
+     * @param key position hash
+     * @return the packed entry stored for the position, or 0 if there is none
+     */
+    public long probe(long key){
+        int i = (int) key & bucketMask;
+        long entry = data[i];
+        if (entry != 0 && (keys[i] ^ entry) == key){
+            return entry;
+        }
+        entry = data[i + 1];
+        if (entry != 0 && (keys[i + 1] ^ entry) == key){
+            return entry;
+        }
+        return 0;
+    }
+
+    /**
+     * Stores a search result, keeping the deeper of the two results for the
+     * same bucket in its first slot.
+     * @param key position hash
+     * @param move 0-based cell index of the best move, or -1
+     * @param score score of the position
+     * @param depth remaining depth the score was searched to
+     * @param flag EXACT, LOWER or UPPER
+     */
+    public void store(long key, int move, int score, int depth, int flag){
+        int i = (int) key & bucketMask;
+        long entry = pack(move, score, depth, flag);
+        long deepest = data[i];
+        long deepestKey = keys[i] ^ deepest;
+        if (deepest == 0 || deepestKey == key || depth >= depthOf(deepest)){
+            if (deepest != 0 && deepestKey != key){
+                keys[i + 1] = deepestKey ^ deepest;
+                data[i + 1] = deepest;
+            }
+            keys[i] = key ^ entry;
+            data[i] = entry;
+        }
+        else{
+            keys[i + 1] = key ^ entry;
+            data[i + 1] = entry;
+        }
+    }
+
+    /** Removes every entry */
+    public void clear(){
+        java.util.Arrays.fill(keys, 0);
+        java.util.Arrays.fill(data, 0);
+    }
+
+    /**
+     * @return the number of entries the table can hold
+     */
+    public int capacity(){
+        return keys.length;
+    }
+
+    static long pack(int move, int score, int depth, int flag){
+        return (score & 0xFFFFFFFFL) | ((move & MOVE_MASK) << 32)
+                | ((long) (depth & 0xFF) << (32 + MOVE_BITS)) | ((long) flag << 62);
+    }
+    public static int scoreOf(long entry){
+        return (int) entry;
+    }
+    public static int moveOf(long entry){
+        int move = (int) ((entry >>> 32) & MOVE_MASK);
+        return move == MOVE_MASK ? -1 : move;
+    }
+    public static int depthOf(long entry){
+        return (int) ((entry >>> (32 + MOVE_BITS)) & 0xFF);
+    }
+    public static int flagOf(long entry){
+        return (int) (entry >>> 62);
+    }
+}
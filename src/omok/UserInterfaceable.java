@@ -1,3 +1,5 @@
+package omok;
+
 public interface UserInterfaceable {
     /**
      * Displays the board
@@ -8,7 +10,8 @@ public interface UserInterfaceable {
     /**
      * Provides the position of the stoned to be placed
      * @param playerName the name of the player to place a stone
-     * @return the x, y coordinates of the stone to be placed
+     * @return the x, y coordinates of the stone to be placed, or null if the
+     * interface has no one to ask
      */
     int[] getStonePlacement(String playerName);
 
@@ -40,4 +43,9 @@ public interface UserInterfaceable {
      * Displays defeat screen
      */
     void drawDefeatScreen();
+
+    /**
+     * Displays the end of a game that filled the board without a winner
+     */
+    void drawTieScreen();
 }
@@ -0,0 +1,35 @@
+package omok;
+
+/**
+ * Zobrist keys for board positions. Keys are derived on the fly from the cell
+ * index and player number with a SplitMix64 finalizer, so every board of the
+ * same size hashes the same way without sharing a key table between threads.
+ */
+public final class Zobrist {
+    private static final long SEED = 0x5DEECE66DL;
+    private Zobrist(){}
+
+    /**
+     * @param cell 0-based cell index, row * width + column
+     * @param playerNum owner of the stone
+     * @return the key to xor into a position hash for that stone
+     */
+    public static long key(int cell, int playerNum){
+        return mix(SEED + ((long) cell << 3) + playerNum);
+    }
+
+    /**
+     * @param playerNum the player to move
+     * @return the key to xor into a position hash for the side to move
+     */
+    public static long sideKey(int playerNum){
+        return mix(~SEED - playerNum);
+    }
+
+    private static long mix(long z){
+        z += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -137,4 +137,17 @@ public class BoardTest {
         }
         assertEquals(5, size);
     }
+    @Test
+    public void testWinningOverwritten(){
+        Board testBoard = new Board(7);
+        testBoard.placeStone(0,1,player);
+        testBoard.placeStone(0,2,player);
+        testBoard.placeStone(0,3,player);
+        testBoard.placeStone(0,4,player);
+        testBoard.placeStone(0,5,player);
+        assertTrue(testBoard.isWonBy(player));
+        testBoard.placeStone(0,3,player2);
+        assertFalse(testBoard.isWonBy(player));
+        assertNull(testBoard.winningRow());
+    }
 }
@@ -0,0 +1,117 @@
+import model.Board;
+import model.Player;
+import model.SparseBoard;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SparseBoardTest {
+    public Player player;
+    public Player player2;
+    @Before
+    public void setUp(){
+        this.player = new Player("Tadeo");
+        this.player2 = new Player("OmokFish");
+    }
+    @Test
+    public void testUnboundedCoordinates(){
+        Board testBoard = new SparseBoard();
+        assertEquals(SparseBoard.UNBOUNDED, testBoard.size());
+        testBoard.placeStone(-1000000, 2000000000, player);
+        assertTrue(testBoard.isOccupiedBy(-1000000, 2000000000, player));
+        assertTrue(testBoard.isEmpty(2000000000, -1000000));
+        assertFalse(testBoard.isFull());
+    }
+    @Test
+    public void testBoardCoversStones(){
+        Board testBoard = new SparseBoard();
+        assertEquals(0, testBoard.board().length);
+        testBoard.placeStone(-3, 10, player);
+        testBoard.placeStone(1, 8, player2);
+        Board.Place[][] places = testBoard.board();
+        assertEquals(5, places.length);
+        assertEquals(3, places[0].length);
+        assertEquals(-3, places[0][2].x);
+        assertEquals(10, places[0][2].y);
+        assertSame(player, places[0][2].owner);
+        assertSame(player2, places[4][0].owner);
+        assertFalse(places[2][1].isOccupied());
+        // The places are snapshots
+        places[2][1].owner = player;
+        assertTrue(testBoard.isEmpty(-1, 9));
+    }
+    @Test
+    public void testBoundedBoardIsWholeGrid(){
+        Board testBoard = new SparseBoard(7);
+        testBoard.placeStone(2, 3, player);
+        Board.Place[][] places = testBoard.board();
+        assertEquals(7, places.length);
+        assertEquals(7, places[6].length);
+        for(int i = 0; i < 7; i++){
+            for(int j = 0; j < 7; j++){
+                assertEquals(i, places[i][j].x);
+                assertEquals(j, places[i][j].y);
+                assertEquals(i == 2 && j == 3 ? player : null, places[i][j].owner);
+            }
+        }
+        assertEquals(7, new SparseBoard(7).board().length);
+    }
+    @Test(expected = IllegalStateException.class)
+    public void testBoardTooLargeForArray(){
+        Board testBoard = new SparseBoard();
+        testBoard.placeStone(Integer.MIN_VALUE, Integer.MIN_VALUE, player);
+        testBoard.placeStone(Integer.MAX_VALUE, Integer.MAX_VALUE, player2);
+        testBoard.board();
+    }
+    @Test
+    public void testFull(){
+        Board testBoard = new SparseBoard(1);
+        assertFalse(testBoard.isFull());
+        testBoard.placeStone(0,0, player);
+        assertTrue(testBoard.isFull());
+    }
+    @Test
+    public void testWinningAcrossOrigin(){
+        Board testBoard = new SparseBoard();
+        for(int i = -2; i <= 2; i++){
+            assertFalse(testBoard.isWonBy(player));
+            testBoard.placeStone(i, -i, player);
+        }
+        assertTrue(testBoard.isWonBy(player));
+        int size = 0;
+        for(Board.Place place: testBoard.winningRow()){
+            assertTrue(place.owner == player);
+            size ++;
+        }
+        assertEquals(5, size);
+        testBoard.placeStone(0, 0, player2);
+        assertFalse(testBoard.isWonBy(player));
+        assertNull(testBoard.winningRow());
+    }
+    @Test
+    public void testRemoveKeepsOtherStones(){
+        SparseBoard testBoard = new SparseBoard();
+        for(int i = 0; i < 1000; i++){
+            testBoard.placeStone(i * 7, -i * 13, player);
+        }
+        for(int i = 0; i < 1000; i += 2){
+            testBoard.placeStone(i * 7, -i * 13, null);
+        }
+        assertEquals(500, testBoard.stoneCount());
+        for(int i = 0; i < 1000; i++){
+            assertEquals(i % 2 == 1, testBoard.isOccupiedBy(i * 7, -i * 13, player));
+        }
+    }
+    @Test
+    public void testNeighborsMatchDenseBoard(){
+        Board dense = new Board(9);
+        Board sparse = new SparseBoard(9);
+        dense.placeStone(0, 0, player);
+        sparse.placeStone(0, 0, player);
+        dense.placeStone(4, 5, player2);
+        sparse.placeStone(4, 5, player2);
+        assertEquals(dense.neighbors(2).size(), sparse.neighbors(2).size());
+        assertEquals(8 + 24, sparse.neighbors(2).size());
+    }
+}
@@ -0,0 +1,119 @@
+package omok;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * The number of positions can be changed with -Domok.analysisPositions=N
+ */
+public class AnalysisPipelineTest {
+    private static final int POSITIONS = Integer.getInteger("omok.analysisPositions", 400);
+
+    @Test
+    public void testResultsKeepInputOrder() throws IOException{
+        Random random = new Random(1);
+        StringBuilder input = new StringBuilder();
+        for (int p = 0; p < POSITIONS; p++){
+            int[][] board = new int[15][15];
+            // Up to 8 stones near the centre, so some positions take longer than others
+            for (int n = random.nextInt(9); n > 0; n--){
+                board[5 + random.nextInt(5)][5 + random.nextInt(5)] = 1 + random.nextInt(2);
+            }
+            input.append(new AnalysisPipeline.Position("p" + p, 1 + p % 2, board).format()).append('\n');
+        }
+        int[][] full = new int[3][3];
+        for (int i = 0; i < 9; i++){
+            full[i / 3][i % 3] = 1 + (i + i / 3) % 2;
+        }
+        input.append(new AnalysisPipeline.Position("full", 1, full).format()).append('\n');
+
+        String[] single = analyze(input.toString(), 1);
+        String[] parallel = analyze(input.toString(), 4);
+        assertEquals(POSITIONS + 1, parallel.length);
+        for (int p = 0; p < POSITIONS; p++){
+            String[] fields = parallel[p].split(" ");
+            assertEquals("p" + p, fields[0]);
+            assertEquals(6, fields.length);
+        }
+        assertEquals("full none", parallel[POSITIONS]);
+        // Every position starts from an empty table, so the workers cannot change the results
+        assertArrayEquals(single, parallel);
+    }
+
+    private static String[] analyze(String input, int workers) throws IOException{
+        AnalysisPipeline pipeline = new AnalysisPipeline(workers, 1000);
+        pipeline.setDepthLimit(2);
+        StringWriter out = new StringWriter();
+        pipeline.run(AnalysisPipeline.positions(new BufferedReader(new StringReader(input))), out);
+        return out.toString().split("\n");
+    }
+
+    @Test
+    public void testJournalYieldsEveryMove() throws IOException{
+        Path file = Files.createTempFile("omok-journal", ".bin");
+        try{
+            long first;
+            long second;
+            try (GameJournal journal = new GameJournal(file)){
+                first = journal.startGame(15, 15);
+                second = journal.startGame(9, 9);
+                journal.recordMove(first, 8, 8, 1);
+                journal.recordMove(second, 5, 5, 2);
+                journal.recordMove(first, 8, 9, 2);
+                journal.endGame(second, 0);
+            }
+            List<AnalysisPipeline.Position> positions = new ArrayList<>();
+            AnalysisPipeline.positions(JournalReplay.records(file)).forEachRemaining(positions::add);
+            assertEquals(3, positions.size());
+            // In the order the moves were recorded, the games interleaved
+            assertEquals(first + ":0", positions.get(0).getId());
+            assertEquals(second + ":0", positions.get(1).getId());
+            assertEquals(first + ":1", positions.get(2).getId());
+            assertEquals(2, positions.get(1).getPlayerNum());
+            assertEquals(9, positions.get(1).getBoard().length);
+            assertEquals(0, positions.get(0).getBoard()[7][7]);
+            assertEquals(1, positions.get(2).getBoard()[7][7]);
+            assertEquals(2, positions.get(2).getPlayerNum());
+        }
+        finally{
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testParseRejectsBadPositions(){
+        String[] bad = {
+                "a x 2 2 0120",
+                "a 3 2 2 0120",
+                "a 0 2 2 0120",
+                "a 1 2 2 0130",
+                "a 1 2 2 01x0",
+                "a 1 2 2 012",
+                "a 1 0 0 ",
+                "a 1 2 2",
+        };
+        for (String line : bad){
+            try{
+                AnalysisPipeline.Position.parse(line);
+                fail("Accepted " + line);
+            }
+            catch (IllegalArgumentException e){
+                // Expected
+            }
+        }
+        AnalysisPipeline.Position position = AnalysisPipeline.Position.parse("a 2 2 2 0120");
+        assertEquals(2, position.getPlayerNum());
+        assertArrayEquals(new int[] {2, 0}, position.getBoard()[1]);
+        assertEquals("a 2 2 2 0120", position.format());
+    }
+}
@@ -0,0 +1,102 @@
+package omok;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BitBoardTest {
+    private BitBoard bits;
+
+    @Before
+    public void setUp(){
+        bits = new BitBoard(15, 15);
+    }
+
+    private void set(int[][] cells){
+        for (int[] cell : cells){
+            bits.set(cell[0], cell[1]);
+        }
+    }
+
+    @Test
+    public void testEmptyBoardHasNoRun(){
+        assertTrue(bits.isEmpty());
+        assertEquals(-1, bits.findRun(BitBoard.HORIZONTAL, 1));
+    }
+
+    @Test
+    public void testIndexRoundTrip(){
+        int index = bits.index(7, 14);
+        assertEquals(7, bits.row(index));
+        assertEquals(14, bits.column(index));
+        bits.set(7, 14);
+        assertTrue(bits.get(7, 14));
+        bits.clear(7, 14);
+        assertFalse(bits.get(7, 14));
+        assertTrue(bits.isEmpty());
+    }
+
+    @Test
+    public void testHorizontalRun(){
+        set(new int[][] {{3, 2}, {3, 3}, {3, 4}, {3, 5}, {3, 6}});
+        assertEquals(bits.index(3, 2), bits.findRun(BitBoard.HORIZONTAL, 5));
+        assertEquals(-1, bits.findRun(BitBoard.HORIZONTAL, 6));
+        assertEquals(-1, bits.findRun(BitBoard.VERTICAL, 2));
+    }
+
+    @Test
+    public void testVerticalRun(){
+        // Rows 3 to 7 cross a word boundary at bit 64
+        set(new int[][] {{3, 4}, {4, 4}, {5, 4}, {6, 4}, {7, 4}});
+        assertEquals(bits.index(3, 4), bits.findRun(BitBoard.VERTICAL, 5));
+        assertEquals(-1, bits.findRun(BitBoard.HORIZONTAL, 2));
+    }
+
+    @Test
+    public void testDiagonalRun(){
+        set(new int[][] {{2, 3}, {3, 4}, {4, 5}, {5, 6}, {6, 7}});
+        assertEquals(bits.index(2, 3), bits.findRun(BitBoard.DIAGONAL, 5));
+        assertEquals(-1, bits.findRun(BitBoard.ANTI_DIAGONAL, 2));
+    }
+
+    @Test
+    public void testAntiDiagonalRun(){
+        set(new int[][] {{2, 7}, {3, 6}, {4, 5}, {5, 4}, {6, 3}});
+        assertEquals(bits.index(2, 7), bits.findRun(BitBoard.ANTI_DIAGONAL, 5));
+        assertEquals(-1, bits.findRun(BitBoard.DIAGONAL, 2));
+    }
+
+    @Test
+    public void testHorizontalRunDoesNotWrap(){
+        // The end of row 0 and the start of row 1 are neighbours in memory
+        set(new int[][] {{0, 12}, {0, 13}, {0, 14}, {1, 0}, {1, 1}});
+        assertEquals(-1, bits.findRun(BitBoard.HORIZONTAL, 5));
+        assertEquals(bits.index(0, 12), bits.findRun(BitBoard.HORIZONTAL, 3));
+    }
+
+    @Test
+    public void testDiagonalRunDoesNotWrap(){
+        // Without the spare column (2, 14) would run on to (4, 0) and (5, 1)
+        set(new int[][] {{0, 12}, {1, 13}, {2, 14}, {4, 0}, {5, 1}});
+        assertEquals(-1, bits.findRun(BitBoard.DIAGONAL, 4));
+        assertEquals(bits.index(0, 12), bits.findRun(BitBoard.DIAGONAL, 3));
+    }
+
+    @Test
+    public void testAntiDiagonalRunDoesNotWrap(){
+        // Without the spare column (2, 0) would run on to (2, 14) and (3, 13)
+        set(new int[][] {{0, 2}, {1, 1}, {2, 0}, {2, 14}, {3, 13}});
+        assertEquals(-1, bits.findRun(BitBoard.ANTI_DIAGONAL, 4));
+        assertEquals(bits.index(0, 2), bits.findRun(BitBoard.ANTI_DIAGONAL, 3));
+    }
+
+    @Test
+    public void testRunAcrossLastWord(){
+        BitBoard large = new BitBoard(19, 19);
+        for (int x = 14; x < 19; x++){
+            large.set(x, 18);
+        }
+        assertEquals(large.index(14, 18), large.findRun(BitBoard.VERTICAL, 5));
+        assertEquals(-1, large.findRun(BitBoard.VERTICAL, 6));
+    }
+}
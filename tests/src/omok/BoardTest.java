@@ -0,0 +1,35 @@
+package omok;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BoardTest {
+    @Test
+    public void testHighlightLeavesStonesAlone(){
+        Board board = new Board(10, 10);
+        long empty = board.getHash();
+        for (int y = 1; y <= 5; y++){
+            board.placeStone(3, y, 1);
+        }
+        long five = board.getHash();
+        assertTrue(board.checkWin(1));
+
+        assertEquals(five, board.getHash());
+        assertEquals(1, board.getBoard()[2][0]);
+        assertTrue(board.isWinningStone(3, 5));
+        int[][] drawn = board.getHighlightedSnapshot();
+        for (int j = 0; j < 5; j++){
+            assertEquals(3, drawn[2][j]);
+        }
+        assertEquals(0, drawn[2][5]);
+
+        // Taking the stones back restores the hash and drops their highlight
+        for (int y = 1; y <= 5; y++){
+            assertTrue(board.removeStone(3, y));
+        }
+        assertEquals(empty, board.getHash());
+        board.placeStone(3, 1, 2);
+        assertEquals(2, board.getHighlightedSnapshot()[2][0]);
+        assertFalse(board.checkWin(1));
+    }
+}
@@ -0,0 +1,110 @@
+package omok;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ComputerPlayerTest {
+    public ComputerPlayer computer;
+    public int[][] board;
+    @Before
+    public void setUp(){
+        computer = new ComputerPlayer(2, new SilentUserInterface(), 50);
+        board = new int[15][15];
+        board[7][7] = 1;
+        board[7][8] = 2;
+        board[6][8] = 1;
+        board[8][6] = 1;
+    }
+    @Test
+    public void testBlocksOpenThree(){
+        int[] placement = computer.getStonePlacement(board);
+        assertTrue((placement[0] == 6 && placement[1] == 10) || (placement[0] == 10 && placement[1] == 6));
+    }
+    @Test
+    public void testChooseMoveDoesNotAllocate(){
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < 20; i++){
+            computer.chooseMove(board);
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        long calibration = threads.getCurrentThreadAllocatedBytes() - before;
+        before = threads.getCurrentThreadAllocatedBytes();
+        int move = computer.chooseMove(board);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before - calibration;
+        assertTrue(move >= 0);
+        assertEquals(0, allocated);
+    }
+    @Test
+    public void testSolvesEndgameExactly(){
+        int[][] cells = {
+            {0, 1, 2, 2, 1},
+            {2, 2, 1, 1, 2},
+            {1, 1, 0, 2, 1},
+            {2, 2, 1, 1, 2},
+            {1, 1, 2, 2, 0},
+        };
+        SearchEngine engine = new SearchEngine(1000);
+        int move = engine.searchMove(new Board(cells), 1);
+        assertEquals(ProofNumberSolver.Outcome.DRAW, engine.getLastOutcome());
+        assertTrue(move == 0 || move == 12 || move == 24);
+    }
+    @Test
+    public void testPonderHitAnswersFromPonderSearch() throws InterruptedException{
+        SearchEngine engine = new SearchEngine(300);
+        Board position = new Board(board);
+        position.makeMove(engine.searchMove(position, 2), 2);
+        int reply = engine.startPondering(position, 1);
+        assertTrue(reply >= 0 && engine.isPondering());
+        // The opponent thinks for longer than the engine's budget
+        Thread.sleep(400);
+        position.makeMove(reply, 1);
+        int move = engine.searchMove(position, 2);
+        assertFalse(engine.isPondering());
+        assertTrue(engine.isLastFromPonder());
+        assertTrue(move >= 0 && engine.getLastDepth() > 0 && engine.getLastNodes() > 0);
+        // Only stopping the ponder search is left to do; the bound leaves room for a busy machine
+        assertTrue("Answered in " + engine.getLastTimeMillis() + " ms", engine.getLastTimeMillis() < 1000);
+        engine.shutdown();
+    }
+    @Test
+    public void testPonderMissSearchesAgain(){
+        SearchEngine engine = new SearchEngine(100);
+        Board position = new Board(board);
+        int reply = engine.startPondering(position, 2);
+        position.makeMove(reply == 0 ? 1 : 0, 2);
+        int move = engine.searchMove(position, 1);
+        assertFalse(engine.isPondering());
+        assertFalse(engine.isLastFromPonder());
+        assertTrue(move >= 0 && position.getBoard()[move / 15][move % 15] == 0);
+        engine.shutdown();
+    }
+    @Test
+    public void testAnalysisRanksCandidates(){
+        SearchEngine engine = new SearchEngine(1000);
+        engine.setDepthLimit(3);
+        List<Analysis> progress = new ArrayList<>();
+        Analysis analysis = engine.analyze(new Board(board), 2, 3, progress::add);
+        assertEquals(3, analysis.getDepth());
+        assertEquals(3, progress.size());
+        assertSame(analysis, progress.get(2));
+        List<Analysis.Line> lines = analysis.getLines();
+        assertEquals(3, lines.size());
+        int[] best = lines.get(0).getMove();
+        assertTrue((best[0] == 6 && best[1] == 10) || (best[0] == 10 && best[1] == 6));
+        for (int k = 0; k < lines.size(); k++){
+            Analysis.Line line = lines.get(k);
+            assertArrayEquals(line.getMove(), line.getVariation()[0]);
+            assertTrue(line.getVariation().length <= 3);
+            if (k > 0){
+                assertTrue(lines.get(k - 1).getScore() >= line.getScore());
+                assertFalse(Arrays.equals(lines.get(k - 1).getMove(), line.getMove()));
+            }
+        }
+    }
+}
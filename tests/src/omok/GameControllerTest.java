@@ -0,0 +1,153 @@
+package omok;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GameControllerTest {
+    private static final int SIZE = new Board().getWidth();
+    @Test
+    public void testFullBoardIsDraw() throws IOException{
+        Path file = Files.createTempFile("omok-journal", ".bin");
+        try{
+            FillingUserInterface ui = new FillingUserInterface();
+            GameEventRing.Cursor cursor;
+            try (GameJournal journal = new GameJournal(file)){
+                GameController controller = new GameController(ui, null, journal);
+                cursor = controller.getEvents().newCursor();
+                controller.start();
+            }
+            assertEquals(1, ui.ties);
+
+            List<JournalReplay.Game> games = JournalReplay.read(file);
+            assertEquals(1, games.size());
+            assertEquals(SIZE * SIZE, games.get(0).getMoveCount());
+            assertEquals(0, games.get(0).getWinner());
+
+            // The start, every move and the end without a winner
+            int[] end = {-1, -1};
+            assertEquals(SIZE * SIZE + 2, cursor.poll((sequence, type, x, y, playerNum) -> {
+                end[0] = type;
+                end[1] = playerNum;
+            }, 1000));
+            assertArrayEquals(new int[] {GameEventRing.GAME_END, 0}, end);
+        }
+        finally{
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testComputerThreadsEndWithGame() throws InterruptedException{
+        int before = ponderThreads();
+        PonderingUserInterface ui = new PonderingUserInterface(3);
+        GameController controller = new GameController(ui, playerNum -> {
+            ComputerPlayer player = new ComputerPlayer(playerNum, ui, 20);
+            player.setPondering(true);
+            return player;
+        });
+        controller.start();
+        assertEquals(3, ui.games);
+        // Shut down executors let their idle threads go without waiting for them
+        long deadline = System.currentTimeMillis() + 5000;
+        while (ponderThreads() > before && System.currentTimeMillis() < deadline){
+            Thread.sleep(10);
+        }
+        assertEquals(before, ponderThreads());
+    }
+
+    private static int ponderThreads(){
+        int count = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()){
+            if (thread.isAlive() && thread.getName().equals("omokfish-ponder")){
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Plays the given number of games against the computer, always taking
+     * the first empty cell, then exits
+     */
+    private static class PonderingUserInterface extends SilentUserInterface {
+        private final int rounds;
+        private int[][] board;
+        int games;
+
+        PonderingUserInterface(int rounds){
+            this.rounds = rounds;
+        }
+        @Override
+        public int getGameMode(){
+            if (games == rounds){
+                return 3;
+            }
+            games++;
+            return 2;
+        }
+        @Override
+        public void drawBoard(int[][] board){
+            this.board = board;
+        }
+        @Override
+        public int[] getStonePlacement(String playerName){
+            for (int i = 0; i < board.length; i++){
+                for (int j = 0; j < board[i].length; j++){
+                    if (board[i][j] == 0){
+                        return new int[] {i + 1, j + 1};
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Plays one Player vs Player game that fills the board without a five:
+     * a cell belongs to the first player to move if (i / 2 + j) is even,
+     * which gives no line of five in any direction, then exits
+     */
+    private static class FillingUserInterface extends SilentUserInterface {
+        private final int[] next = new int[2];
+        private String first;
+        private boolean played;
+        int ties;
+
+        @Override
+        public int getGameMode(){
+            if (played){
+                return 3;
+            }
+            played = true;
+            return 1;
+        }
+        @Override
+        public int[] getStonePlacement(String playerName){
+            if (first == null){
+                first = playerName;
+            }
+            int parity = playerName.equals(first) ? 0 : 1;
+            while (true){
+                int cell = next[parity]++;
+                int i = cell / SIZE;
+                int j = cell % SIZE;
+                if ((i / 2 + j) % 2 == parity){
+                    return new int[] {i + 1, j + 1};
+                }
+            }
+        }
+        @Override
+        public void drawVictoryScreen(String playerName){
+            fail(playerName + " won a game that should fill the board");
+        }
+        @Override
+        public void drawTieScreen(){
+            ties++;
+        }
+    }
+}
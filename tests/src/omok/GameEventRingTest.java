@@ -0,0 +1,91 @@
+package omok;
+import java.lang.management.ManagementFactory;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GameEventRingTest {
+    private static final int EVENTS = 1000000;
+
+    /** Checks that every event arrives whole and in order, counting them */
+    private static class Checker implements GameEventRing.Handler {
+        private long last = -1;
+        private long received;
+        private boolean torn;
+
+        @Override
+        public void onEvent(long sequence, int type, int x, int y, int playerNum){
+            torn |= sequence <= last || x != (int) (sequence % 15) + 1 || y != x || playerNum != (int) (sequence % 2) + 1;
+            last = sequence;
+            received++;
+        }
+    }
+
+    @Test
+    public void testSpectatorsReadAtTheirOwnPace() throws InterruptedException{
+        GameEventRing ring = new GameEventRing(256);
+        Checker fast = new Checker();
+        Checker slow = new Checker();
+        GameEventRing.Cursor fastCursor = ring.newCursor();
+        GameEventRing.Cursor slowCursor = ring.newCursor();
+        Thread fastReader = new Thread(() -> {
+            while (fastCursor.getPosition() < EVENTS){
+                fastCursor.poll(fast, 64);
+            }
+        });
+        Thread slowReader = new Thread(() -> {
+            while (slowCursor.getPosition() < EVENTS){
+                slowCursor.poll(slow, 1);
+                try{
+                    Thread.sleep(1);
+                }
+                catch (InterruptedException e){
+                    return;
+                }
+            }
+        });
+        fastReader.start();
+        slowReader.start();
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int n = 0; n < EVENTS; n++){
+            ring.publish(GameEventRing.MOVE, n % 15 + 1, n % 15 + 1, n % 2 + 1);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        fastReader.join(10000);
+        slowReader.interrupt();
+        slowReader.join();
+
+        assertTrue("Publishing allocated " + allocated + " bytes", allocated < 1024);
+        assertFalse(fast.torn);
+        assertFalse(slow.torn);
+        assertEquals(EVENTS, fast.received + fastCursor.getMissed());
+        // The slow spectator fell behind without holding the publisher up
+        assertTrue(slowCursor.getMissed() > 0);
+        assertEquals(slowCursor.getPosition(), slow.received + slowCursor.getMissed());
+    }
+
+    @Test
+    public void testGameIsBroadcast(){
+        GameEventRing ring = new GameEventRing(4);
+        assertEquals(4, ring.capacity());
+        GameEventRing.Cursor cursor = ring.newCursor();
+        ring.publish(GameEventRing.GAME_START, 15, 15, 0);
+        ring.publish(GameEventRing.MOVE, 8, 8, 1);
+        int[] types = new int[2];
+        assertEquals(2, cursor.poll((sequence, type, x, y, playerNum) -> types[(int) sequence] = type, 10));
+        assertArrayEquals(new int[] {GameEventRing.GAME_START, GameEventRing.MOVE}, types);
+        assertEquals(0, cursor.poll((sequence, type, x, y, playerNum) -> fail(), 10));
+        for (int n = 0; n < 6; n++){
+            ring.publish(GameEventRing.MOVE, 1, 1, 2);
+        }
+        ring.publish(GameEventRing.GAME_END, 0, 0, 2);
+        int[] winner = new int[1];
+        // Only the newest events are still held
+        assertEquals(3, cursor.poll((sequence, type, x, y, playerNum) -> winner[0] = playerNum, 10));
+        assertEquals(4, cursor.getMissed());
+        assertEquals(2, winner[0]);
+    }
+}
@@ -0,0 +1,139 @@
+package omok;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GameJournalTest {
+    private static final int GAMES = 64;
+    private static final int MOVES = 100;
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException{
+        file = Files.createTempFile("omok-journal", ".bin");
+    }
+    @After
+    public void tearDown() throws IOException{
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testReplaysConcurrentGames() throws Exception{
+        try (GameJournal journal = new GameJournal(file)){
+            Thread[] threads = new Thread[GAMES];
+            for (int g = 0; g < GAMES; g++){
+                threads[g] = new Thread(() -> {
+                    long game = journal.startGame(15, 15);
+                    for (int n = 0; n < MOVES; n++){
+                        journal.recordMove(game, n / 15 + 1, n % 15 + 1, n % 2 + 1);
+                    }
+                    journal.endGame(game, 1);
+                });
+                threads[g].start();
+            }
+            for (Thread thread : threads){
+                thread.join();
+            }
+            journal.sync();
+            assertEquals(journal.getAppended(), journal.getDurable());
+        }
+
+        List<JournalReplay.Game> games = JournalReplay.read(file);
+        assertEquals(GAMES, games.size());
+        for (JournalReplay.Game game : games){
+            assertEquals(MOVES, game.getMoveCount());
+            assertEquals(1, game.getWinner());
+            Board board = game.boardAfter(MOVES);
+            assertEquals(MOVES, board.getStoneCount());
+            assertEquals(2, board.getBoard()[0][1]);
+        }
+    }
+
+    @Test
+    public void testStopsAtTornRecord() throws Exception{
+        long id;
+        try (GameJournal journal = new GameJournal(file)){
+            id = journal.startGame(10, 10);
+            journal.recordMove(id, 5, 5, 1);
+            journal.recordMove(id, 5, 6, 2);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)){
+            channel.truncate(channel.size() - 3);
+        }
+        List<JournalReplay.Game> games = JournalReplay.read(file);
+        assertEquals(1, games.size());
+        assertEquals(id, games.get(0).getId());
+        assertEquals(1, games.get(0).getMoveCount());
+        assertEquals(-1, games.get(0).getWinner());
+        assertEquals(1, games.get(0).boardAfter(1).getBoard()[4][4]);
+    }
+
+    @Test
+    public void testReopeningCutsTornRecord() throws Exception{
+        long first;
+        try (GameJournal journal = new GameJournal(file)){
+            first = journal.startGame(10, 10);
+            journal.recordMove(first, 5, 5, 1);
+            journal.recordMove(first, 5, 6, 2);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)){
+            channel.truncate(channel.size() - 3);
+        }
+        long second;
+        try (GameJournal journal = new GameJournal(file)){
+            second = journal.startGame(15, 15);
+            journal.recordMove(second, 8, 8, 1);
+            journal.endGame(second, 1);
+        }
+        List<JournalReplay.Game> games = JournalReplay.read(file);
+        assertEquals(2, games.size());
+        assertEquals(first, games.get(0).getId());
+        assertEquals(1, games.get(0).getMoveCount());
+        assertEquals(second, games.get(1).getId());
+        assertEquals(1, games.get(1).getMoveCount());
+        assertEquals(1, games.get(1).getWinner());
+    }
+
+    @Test
+    public void testReadsAcrossWindows() throws Exception{
+        try (GameJournal journal = new GameJournal(file)){
+            long game = journal.startGame(15, 15);
+            for (int n = 0; n < MOVES; n++){
+                journal.recordMove(game, n / 15 + 1, n % 15 + 1, n % 2 + 1);
+            }
+            journal.endGame(game, 2);
+        }
+        long whole = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)){
+            channel.truncate(whole - 3);
+        }
+        // Small windows that end inside records, never on a boundary
+        for (int window : new int[] {23, 50, 4096}){
+            JournalReplay.Records records = JournalReplay.records(file, window);
+            int moves = 0;
+            while (records.next()){
+                if (records.getType() == GameJournal.MOVE){
+                    assertEquals(moves / 15 + 1, records.getX());
+                    assertEquals(moves % 15 + 1, records.getY());
+                    moves++;
+                }
+                else{
+                    assertEquals(GameJournal.GAME_START, records.getType());
+                }
+            }
+            assertEquals(MOVES, moves);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+                assertEquals(whole - GameJournal.HEADER_BYTES - 10, GameJournal.validLength(channel, window));
+            }
+        }
+    }
+}
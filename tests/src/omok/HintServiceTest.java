@@ -0,0 +1,75 @@
+package omok;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class HintServiceTest {
+    private HintService hints;
+    private int[][] board;
+
+    @Before
+    public void setUp(){
+        hints = new HintService(new SearchEngine(50));
+        board = new int[15][15];
+        board[7][7] = 1;
+        board[7][8] = 2;
+        board[6][8] = 1;
+        board[8][6] = 1;
+    }
+    @After
+    public void tearDown(){
+        hints.close();
+    }
+
+    @Test
+    public void testMirroredPositionIsCached() throws Exception{
+        int[] hint = hints.request(board, 2).get();
+        assertTrue((hint[0] == 6 && hint[1] == 10) || (hint[0] == 10 && hint[1] == 6));
+
+        // The same position mirrored left to right
+        int[][] mirrored = new int[15][15];
+        for (int i = 0; i < 15; i++){
+            for (int j = 0; j < 15; j++){
+                mirrored[i][14 - j] = board[i][j];
+            }
+        }
+        CompletableFuture<int[]> cached = hints.request(mirrored, 2);
+        assertTrue(cached.isDone());
+        assertArrayEquals(new int[] {hint[0], 16 - hint[1]}, cached.get());
+        assertEquals(1, hints.getSearches());
+        assertEquals(1, hints.getCacheHits());
+    }
+
+    @Test
+    public void testNewerRequestCancelsOlder() throws Exception{
+        CompletableFuture<int[]> first = hints.request(board, 2);
+        board[0][0] = 2;
+        CompletableFuture<int[]> second = hints.request(board, 1);
+        assertTrue(first.isCancelled());
+        assertNotNull(second.get());
+    }
+
+    @Test
+    public void testCancelStopsRunningSearch() throws Exception{
+        HintService slow = new HintService(new SearchEngine(60000));
+        try{
+            CompletableFuture<int[]> hint = slow.request(board, 2);
+            Thread.sleep(100);
+            hint.cancel(false);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (slow.getSearches() == 0 && System.currentTimeMillis() < deadline){
+                Thread.sleep(10);
+            }
+            assertEquals(1, slow.getSearches());
+            // The stopped search is not cached
+            assertFalse(slow.request(board, 2).isDone());
+        }
+        finally{
+            slow.close();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package omok;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Plays many remote players against a NetworkServer over loopback. The
+ * players are driven by one selector, like the server, so the test needs
+ * no thread per player either. The number of players can be changed with
+ * -Domok.remotePlayers=N.
+ */
+public class NetworkServerTest {
+    private static final int PLAYERS = Integer.getInteger("omok.remotePlayers", 1000);
+    private static final long TIMEOUT_MILLIS = 60000;
+
+    @Test
+    public void testManyRemotePlayers() throws IOException{
+        try (SessionManager sessions = new SessionManager();
+                NetworkServer server = new NetworkServer(0, sessions);
+                Selector selector = Selector.open()){
+            InetSocketAddress address = new InetSocketAddress("127.0.0.1", server.getPort());
+            for (int i = 0; i < PLAYERS; i++){
+                SocketChannel channel = SocketChannel.open(address);
+                channel.configureBlocking(false);
+                channel.register(selector, SelectionKey.OP_READ, new ScriptedClient(channel));
+            }
+
+            int finished = 0;
+            int wins = 0;
+            long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+            while (finished < PLAYERS && System.currentTimeMillis() < deadline){
+                selector.select(1000);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()){
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    ScriptedClient client = (ScriptedClient) key.attachment();
+                    if (!client.read()){
+                        key.cancel();
+                        key.channel().close();
+                        finished++;
+                        wins += client.wins;
+                    }
+                }
+            }
+            assertEquals(PLAYERS, finished);
+            assertEquals(PLAYERS, wins);
+        }
+    }
+
+    @Test
+    public void testFloodingClientIsDisconnected() throws Exception{
+        try (SessionManager sessions = new SessionManager();
+                NetworkServer server = new NetworkServer(0, sessions);
+                SocketChannel channel = SocketChannel.open(new InetSocketAddress("127.0.0.1", server.getPort()))){
+            StringBuilder flood = new StringBuilder();
+            for (int i = 0; i < 10 * NetworkServer.MAX_INBOUND_LINES; i++){
+                flood.append("junk\n");
+            }
+            ByteBuffer bytes = ByteBuffer.wrap(flood.toString().getBytes(StandardCharsets.UTF_8));
+            while (bytes.hasRemaining()){
+                channel.write(bytes);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(4096);
+            long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+            while (channel.read(buffer) >= 0 && System.currentTimeMillis() < deadline){
+                buffer.clear();
+            }
+            assertEquals(-1, channel.read(buffer));
+        }
+    }
+
+    @Test
+    public void testClientThatDoesNotReadIsDisconnected() throws Exception{
+        BlockingQueue<RemoteConnection> connections = new LinkedBlockingQueue<>();
+        try (NetworkServer server = new NetworkServer(0, connections::add);
+                SocketChannel channel = SocketChannel.open(new InetSocketAddress("127.0.0.1", server.getPort()))){
+            RemoteConnection connection = connections.take();
+            String line = "x".repeat(1000);
+            long sent = 0;
+            try{
+                // Far more than the socket buffers can absorb
+                while (sent < 100L * 1024 * 1024){
+                    connection.send(line);
+                    sent += line.length();
+                }
+                fail("Sent " + sent + " bytes to a client that does not read");
+            }
+            catch (UncheckedIOException e){
+                // Expected
+            }
+            try{
+                connection.send("again");
+                fail("Still sending to a disconnected client");
+            }
+            catch (UncheckedIOException e){
+                // Expected
+            }
+        }
+    }
+
+    /**
+     * Answers the server like a player of one Player vs Player game who then
+     * exits: player 1 fills row 1 and player 2 fills row 3.
+     */
+    private static class ScriptedClient {
+        private final SocketChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1024);
+        private final StringBuilder line = new StringBuilder();
+        private final int[] placed = new int[3];
+        private boolean played;
+        int wins;
+
+        ScriptedClient(SocketChannel channel){
+            this.channel = channel;
+        }
+
+        /**
+         * @return false once the server has closed the connection
+         */
+        boolean read() throws IOException{
+            buffer.clear();
+            if (channel.read(buffer) < 0){
+                return false;
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()){
+                char c = (char) buffer.get();
+                if (c == '\n'){
+                    answer(line.toString());
+                    line.setLength(0);
+                }
+                else{
+                    line.append(c);
+                }
+            }
+            return true;
+        }
+
+        private void answer(String message) throws IOException{
+            if (message.equals("MODE?")){
+                send(played ? "3" : "1");
+                played = true;
+            }
+            else if (message.startsWith("NAME? ")){
+                send("P" + message.substring(6));
+            }
+            else if (message.startsWith("MOVE? ")){
+                int playerNum = message.endsWith("1") ? 1 : 2;
+                send((playerNum == 1 ? 1 : 3) + " " + ++placed[playerNum]);
+            }
+            else if (message.startsWith("WIN ")){
+                wins++;
+            }
+        }
+
+        private void send(String answer) throws IOException{
+            ByteBuffer bytes = ByteBuffer.wrap((answer + "\n").getBytes(StandardCharsets.UTF_8));
+            while (bytes.hasRemaining()){
+                channel.write(bytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package omok;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class OpeningBookTest {
+    private Path journalFile;
+    private Path bookFile;
+
+    @Before
+    public void setUp() throws IOException{
+        journalFile = Files.createTempFile("omok-journal", ".bin");
+        bookFile = Files.createTempFile("omok-book", ".bin");
+    }
+    @After
+    public void tearDown() throws IOException{
+        Files.deleteIfExists(journalFile);
+        Files.deleteIfExists(bookFile);
+    }
+
+    @Test
+    public void testBookMovesFollowSymmetry() throws IOException{
+        int[][] moves = {{8, 8}, {7, 9}, {7, 7}, {9, 9}};
+        try (GameJournal journal = new GameJournal(journalFile)){
+            long game = journal.startGame(15, 15);
+            for (int n = 0; n < moves.length; n++){
+                journal.recordMove(game, moves[n][0], moves[n][1], n % 2 + 1);
+            }
+            journal.endGame(game, 1);
+        }
+        new OpeningBook.Builder().addAll(JournalReplay.read(journalFile)).write(bookFile);
+        OpeningBook book = OpeningBook.open(bookFile, new Random(1));
+        // Player 2 lost, so only the positions player 1 moved in are booked
+        assertEquals(2, book.size());
+
+        // The position after the first two moves, mirrored left to right
+        Board board = new Board(15, 15);
+        for (int n = 0; n < 2; n++){
+            board.placeStone(moves[n][0], 16 - moves[n][1], n % 2 + 1);
+        }
+        int move = book.probe(board, 1);
+        // The third move mirrored the same way
+        assertEquals((moves[2][0] - 1) * 15 + 15 - moves[2][1], move);
+
+        assertEquals(-1, book.probe(board, 2));
+        board.placeStone(1, 1, 1);
+        assertEquals(-1, book.probe(board, 2));
+    }
+
+    @Test
+    public void testBookIsForOneBoardSize() throws IOException{
+        try (GameJournal journal = new GameJournal(journalFile)){
+            long game = journal.startGame(15, 15);
+            journal.recordMove(game, 8, 8, 1);
+            journal.endGame(game, 1);
+        }
+        new OpeningBook.Builder().addAll(JournalReplay.read(journalFile)).write(bookFile);
+        OpeningBook book = OpeningBook.open(bookFile);
+        assertEquals(15, book.getHeight());
+        assertEquals(15, book.getWidth());
+        assertEquals(7 * 15 + 7, book.probe(new Board(15, 15), 1));
+        // The empty board has the same key on every size
+        assertEquals(-1, book.probe(new Board(9, 9), 1));
+        assertEquals(-1, book.probe(new Board(15, 19), 1));
+
+        OpeningBook.Builder builder = new OpeningBook.Builder(4, 9, 9);
+        try{
+            builder.addAll(JournalReplay.read(journalFile));
+            fail("Booked a 15x15 game for a 9x9 book");
+        }
+        catch (IllegalArgumentException e){
+            // Expected
+        }
+    }
+
+    @Test
+    public void testComputerPlayerPlaysFromBook() throws IOException{
+        new OpeningBook.Builder().addSelfPlay(2, 9, 50, 1).write(bookFile);
+        OpeningBook book = OpeningBook.open(bookFile);
+        assertTrue(book.size() > 0);
+        ComputerPlayer player = new ComputerPlayer(1, new UserInterface());
+        player.setOpeningBook(book);
+        int move = player.chooseMove(new int[9][9]);
+        // Every self-play game starts near the centre
+        assertTrue(move / 9 >= 3 && move / 9 <= 5 && move % 9 >= 3 && move % 9 <= 5);
+    }
+}
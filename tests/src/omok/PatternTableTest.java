@@ -0,0 +1,84 @@
+package omok;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PatternTableTest {
+    /**
+     * Classifies a line written as a string: X for player 1, O for player 2,
+     * . for empty and * for the empty point itself. The line is the whole
+     * width of the board, so its ends are edges.
+     */
+    private static int threat(String line, int playerNum){
+        int[][] cells = new int[1][line.length()];
+        for (int j = 0; j < line.length(); j++){
+            cells[0][j] = line.charAt(j) == 'X' ? 1 : line.charAt(j) == 'O' ? 2 : 0;
+        }
+        return PatternTable.threat(PatternTable.index(cells, 0, line.indexOf('*'), 0, 1, playerNum));
+    }
+    private static int threat(String line){
+        return threat(line, 1);
+    }
+
+    @Test
+    public void testFive(){
+        assertEquals(PatternTable.FIVE, threat("..XXXX*.."));
+        assertEquals(PatternTable.FIVE, threat("..XX*XX.."));
+        // An overline counts as five
+        assertEquals(PatternTable.FIVE, threat("XXX*XX..."));
+    }
+
+    @Test
+    public void testFours(){
+        assertEquals(PatternTable.OPEN_FOUR, threat("..XXX*..."));
+        assertEquals(PatternTable.FOUR, threat("OXXX*...."));
+        assertEquals(PatternTable.FOUR, threat("..XX*.X.."));
+        // Two gaps completing five on the same line
+        assertEquals(PatternTable.OPEN_FOUR, threat("X.X*X.X.."));
+    }
+
+    @Test
+    public void testThreesAndTwos(){
+        assertEquals(PatternTable.OPEN_THREE, threat("...XX*..."));
+        assertEquals(PatternTable.OPEN_THREE, threat("...X*.X..."));
+        assertEquals(PatternTable.THREE, threat("OXX*....."));
+        assertEquals(PatternTable.OPEN_TWO, threat("....X*...."));
+        assertEquals(PatternTable.TWO, threat("OX*......"));
+    }
+
+    @Test
+    public void testNoRoomForFive(){
+        assertEquals(PatternTable.NONE, threat("OXX*.O..."));
+        assertEquals(PatternTable.NONE, threat("........."));
+        assertEquals(PatternTable.NONE, threat("...O*O..."));
+    }
+
+    @Test
+    public void testEdgeBlocksLikeOpponent(){
+        assertEquals(PatternTable.FOUR, threat("*XXX....."));
+        assertEquals(threat("OXXX*...."), threat("XXX*....."));
+        assertEquals(PatternTable.NONE, threat("XX*.O"));
+    }
+
+    @Test
+    public void testSeenByEachPlayer(){
+        assertEquals(PatternTable.OPEN_FOUR, threat("..OOO*...", 2));
+        assertEquals(PatternTable.NONE, threat("..OOO*...", 1));
+        assertEquals(PatternTable.FOUR, threat("XOOO*....", 2));
+    }
+
+    @Test
+    public void testDirectionsAgree(){
+        int[][] cells = new int[9][9];
+        for (int k = 1; k < 4; k++){
+            cells[4 + k][4] = 1;
+            cells[4 + k][4 + k] = 1;
+            cells[4 + k][4 - k] = 1;
+        }
+        assertEquals(PatternTable.OPEN_FOUR, PatternTable.threat(PatternTable.index(cells, 4, 4, 1, 0, 1)));
+        assertEquals(PatternTable.OPEN_FOUR, PatternTable.threat(PatternTable.index(cells, 4, 4, 1, 1, 1)));
+        assertEquals(PatternTable.OPEN_FOUR, PatternTable.threat(PatternTable.index(cells, 4, 4, 1, -1, 1)));
+        assertEquals(PatternTable.NONE, PatternTable.threat(PatternTable.index(cells, 4, 4, 0, 1, 1)));
+        assertEquals(3 * PatternTable.score(PatternTable.OPEN_FOUR), PatternTable.pointScore(cells, 4, 4, 1));
+    }
+}
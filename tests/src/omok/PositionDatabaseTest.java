@@ -0,0 +1,100 @@
+package omok;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * The number of filler positions in the index can be changed with
+ * -Domok.positions=N, for example 10000000 to time queries at full size.
+ */
+public class PositionDatabaseTest {
+    private static final int POSITIONS = Integer.getInteger("omok.positions", 1000000);
+    private Path journalFile;
+    private Path indexFile;
+
+    @Before
+    public void setUp() throws IOException{
+        journalFile = Files.createTempFile("omok-journal", ".bin");
+        indexFile = Files.createTempFile("omok-index", ".bin");
+    }
+    @After
+    public void tearDown() throws IOException{
+        Files.deleteIfExists(journalFile);
+        Files.deleteIfExists(indexFile);
+    }
+
+    @Test
+    public void testSymmetricGamesShareEntries() throws IOException{
+        int[][] moves = {{8, 8}, {8, 9}, {7, 7}, {9, 9}, {6, 6}};
+        long first;
+        long rotated;
+        try (GameJournal journal = new GameJournal(journalFile)){
+            first = journal.startGame(15, 15);
+            rotated = journal.startGame(15, 15);
+            for (int n = 0; n < moves.length; n++){
+                int x = moves[n][0];
+                int y = moves[n][1];
+                journal.recordMove(first, x, y, n % 2 + 1);
+                // A quarter turn: (x, y) goes to (y, 16 - x)
+                journal.recordMove(rotated, y, 16 - x, n % 2 + 1);
+            }
+            journal.endGame(first, 1);
+            journal.endGame(rotated, 2);
+        }
+        PositionDatabase.Builder builder = new PositionDatabase.Builder()
+                .addAll(JournalReplay.read(journalFile));
+        Random random = new Random(1);
+        for (int i = 0; i < POSITIONS; i++){
+            builder.add(random.nextLong(), 15, 15, i, 1, 0);
+        }
+        builder.write(indexFile);
+        PositionDatabase database = PositionDatabase.open(indexFile);
+        assertEquals(2 * moves.length + POSITIONS, database.size());
+
+        // The position after three moves of the first game, mirrored top to bottom
+        Board board = new Board(15, 15);
+        for (int n = 0; n < 3; n++){
+            board.placeStone(16 - moves[n][0], moves[n][1], n % 2 + 1);
+        }
+        List<PositionDatabase.Hit> hits = database.find(board);
+
+        assertEquals(2, hits.size());
+        List<Long> games = new ArrayList<>();
+        for (PositionDatabase.Hit hit : hits){
+            assertEquals(3, hit.getPly());
+            assertEquals(hit.getGame() == first ? 1 : 2, hit.getWinner());
+            games.add(hit.getGame());
+        }
+        assertTrue(games.contains(first) && games.contains(rotated));
+        board.placeStone(1, 1, 1);
+        assertTrue(database.find(board).isEmpty());
+    }
+
+    @Test
+    public void testFindKeepsToTheBoardSize() throws IOException{
+        Board board = new Board(15, 15);
+        board.placeStone(8, 8, 1);
+        long hash = Symmetry.canonicalHash(board);
+        new PositionDatabase.Builder()
+                .add(hash, 10, 10, 1, 1, 1)
+                .add(hash, 15, 15, 2, 1, 2)
+                .write(indexFile);
+        PositionDatabase database = PositionDatabase.open(indexFile);
+        assertEquals(2, database.find(hash).size());
+
+        List<PositionDatabase.Hit> hits = database.find(board);
+        assertEquals(1, hits.size());
+        assertEquals(2, hits.get(0).getGame());
+        assertEquals(15, hits.get(0).getHeight());
+        assertEquals(15, hits.get(0).getWidth());
+    }
+}
@@ -0,0 +1,256 @@
+package omok;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Load test for the session manager: opens many sessions, holds them all
+ * open at once, then lets every one of them play a short scripted game,
+ * timing each move from the player's answer to the next prompt. A tenth as
+ * many sessions play the computer, sharing a pool of two engines.
+ * The default is small enough for every build; run it as a load test with
+ * -Domok.sessions=N, e.g. 10000.
+ */
+public class SessionManagerTest {
+    private static final int SESSIONS = Integer.getInteger("omok.sessions", 200);
+    /** Heap a waiting session may hold: its controller, board and event ring */
+    private static final long MAX_HEAP_PER_SESSION = 256 * 1024;
+    /** Slowest round trip allowed to the 99th percentile, far above what a move takes, as the machine may be busy */
+    private static final long MAX_P99_NANOS = 2000L * 1000000L;
+    private static final int ENGINES = 2;
+    private static final long ENGINE_BUDGET_MILLIS = 10;
+
+    @Test
+    public void testConcurrentSessions() throws Exception{
+        CountDownLatch ready = new CountDownLatch(SESSIONS);
+        CountDownLatch go = new CountDownLatch(1);
+        AtomicInteger wins = new AtomicInteger();
+        AtomicLong moves = new AtomicLong();
+        ConcurrentLinkedQueue<long[]> latencies = new ConcurrentLinkedQueue<>();
+
+        long heapBefore = usedHeap();
+        List<Future<?>> sessions = new ArrayList<>(SESSIONS);
+        try (SessionManager manager = new SessionManager()){
+            for (int i = 0; i < SESSIONS; i++){
+                ScriptedUserInterface ui = new ScriptedUserInterface(ready, go, wins, moves);
+                sessions.add(manager.open(ui, () -> latencies.add(ui.getLatencies())));
+            }
+            ready.await();
+            long heapPerSession = (usedHeap() - heapBefore) / SESSIONS;
+            assertEquals(SESSIONS, manager.getActiveSessions());
+            assertTrue(heapPerSession + " heap bytes per session", heapPerSession < MAX_HEAP_PER_SESSION);
+
+            go.countDown();
+            for (Future<?> session : sessions){
+                session.get();
+            }
+            assertEquals(SESSIONS, manager.getCompletedSessions());
+            assertEquals(0, manager.getFailedSessions());
+            assertEquals(SESSIONS, wins.get());
+            // Five stones for the first player, four for the second
+            assertEquals(9L * SESSIONS, moves.get());
+        }
+        long[] sorted = merge(latencies);
+        assertEquals(9L * SESSIONS, sorted.length);
+        long p50 = sorted[sorted.length / 2];
+        long p99 = sorted[sorted.length * 99 / 100];
+        System.out.println(SESSIONS + " sessions: move round trip p50 " + p50 / 1000 + " us, p99 " + p99 / 1000 + " us");
+        assertTrue("p99 " + p99 + " ns", p99 < MAX_P99_NANOS);
+    }
+
+    @Test
+    public void testComputerSessionsShareEngines() throws Exception{
+        int sessions = Math.max(1, SESSIONS / 10);
+        AtomicInteger games = new AtomicInteger();
+        ConcurrentLinkedQueue<long[]> latencies = new ConcurrentLinkedQueue<>();
+        List<Future<?>> futures = new ArrayList<>(sessions);
+        try (EnginePool engines = new EnginePool(ENGINES, ENGINE_BUDGET_MILLIS, 1);
+             SessionManager manager = new SessionManager(engines, null)){
+            for (int i = 0; i < sessions; i++){
+                StrategyUserInterface ui = new StrategyUserInterface(games);
+                futures.add(manager.open(ui, () -> latencies.add(ui.getLatencies())));
+            }
+            for (Future<?> session : futures){
+                session.get();
+            }
+            assertEquals(sessions, manager.getCompletedSessions());
+            assertEquals(0, manager.getFailedSessions());
+            assertEquals(sessions, games.get());
+            assertTrue(engines.getCreated() + " engines", engines.getCreated() <= ENGINES);
+        }
+        long[] sorted = merge(latencies);
+        long p50 = sorted[sorted.length / 2];
+        long p99 = sorted[sorted.length * 99 / 100];
+        System.out.println(sessions + " sessions against " + ENGINES + " engines: computer reply p50 "
+                + p50 / 1000000 + " ms, p99 " + p99 / 1000000 + " ms");
+        // A reply may wait for the searches of every other session, each allowed ten times its budget
+        assertTrue("p99 " + p99 + " ns", p99 < MAX_P99_NANOS + sessions * 10 * ENGINE_BUDGET_MILLIS * 1000000L);
+    }
+
+    private static long[] merge(ConcurrentLinkedQueue<long[]> latencies){
+        int count = 0;
+        for (long[] session : latencies){
+            count += session.length;
+        }
+        long[] all = new long[count];
+        int n = 0;
+        for (long[] session : latencies){
+            System.arraycopy(session, 0, all, n, session.length);
+            n += session.length;
+        }
+        Arrays.sort(all);
+        return all;
+    }
+
+    private static long usedHeap() throws InterruptedException{
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++){
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Plays one game of Player vs Player and exits. Player 1 fills row 1
+     * and player 2 fills row 3, so whoever moves first wins on their fifth
+     * stone. Each move is timed from the answer to the next prompt or to
+     * the end of the game.
+     */
+    private static class ScriptedUserInterface extends SilentUserInterface {
+        private final CountDownLatch ready;
+        private final CountDownLatch go;
+        private final AtomicInteger wins;
+        private final AtomicLong moves;
+        private final int[] placed = new int[3];
+        private final long[] latencies = new long[9];
+        private int timed;
+        private long answered;
+        private boolean played;
+
+        ScriptedUserInterface(CountDownLatch ready, CountDownLatch go, AtomicInteger wins, AtomicLong moves){
+            this.ready = ready;
+            this.go = go;
+            this.wins = wins;
+            this.moves = moves;
+        }
+        @Override
+        public int getGameMode(){
+            if (played){
+                return 3;
+            }
+            played = true;
+            ready.countDown();
+            try{
+                go.await();
+            }
+            catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+                return 3;
+            }
+            return 1;
+        }
+        @Override
+        public int[] getStonePlacement(String playerName){
+            lap();
+            moves.incrementAndGet();
+            int playerNum = playerName.endsWith("1") ? 1 : 2;
+            int[] move = {playerNum == 1 ? 1 : 3, ++placed[playerNum]};
+            answered = System.nanoTime();
+            return move;
+        }
+        @Override
+        public void drawVictoryScreen(String playerName){
+            lap();
+            wins.incrementAndGet();
+        }
+        private void lap(){
+            if (answered != 0 && timed < latencies.length){
+                latencies[timed++] = System.nanoTime() - answered;
+            }
+        }
+        long[] getLatencies(){
+            return Arrays.copyOf(latencies, timed);
+        }
+    }
+
+    /**
+     * Plays one game against the computer and exits, always taking the
+     * first empty cell of the board it was last shown. Each computer reply
+     * is timed from the player's answer to the next prompt or to the end
+     * of the game.
+     */
+    private static class StrategyUserInterface extends SilentUserInterface {
+        private final AtomicInteger games;
+        private int[][] shown;
+        private long[] latencies = new long[16];
+        private int timed;
+        private long answered;
+        private boolean played;
+
+        StrategyUserInterface(AtomicInteger games){
+            this.games = games;
+        }
+        @Override
+        public int getGameMode(){
+            if (played){
+                return 3;
+            }
+            played = true;
+            return 2;
+        }
+        @Override
+        public void drawBoard(int[][] board){
+            shown = board;
+        }
+        @Override
+        public int[] getStonePlacement(String playerName){
+            lap();
+            for (int i = 0; i < shown.length; i++){
+                for (int j = 0; j < shown[i].length; j++){
+                    if (shown[i][j] == 0){
+                        answered = System.nanoTime();
+                        return new int[] {i + 1, j + 1};
+                    }
+                }
+            }
+            return null;
+        }
+        @Override
+        public void drawVictoryScreen(String playerName){
+            lap();
+            games.incrementAndGet();
+        }
+        @Override
+        public void drawDefeatScreen(){
+            lap();
+            games.incrementAndGet();
+        }
+        @Override
+        public void drawTieScreen(){
+            lap();
+            games.incrementAndGet();
+        }
+        private void lap(){
+            if (answered != 0){
+                if (timed == latencies.length){
+                    latencies = Arrays.copyOf(latencies, 2 * timed);
+                }
+                latencies[timed++] = System.nanoTime() - answered;
+                answered = 0;
+            }
+        }
+        long[] getLatencies(){
+            return Arrays.copyOf(latencies, timed);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package omok;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ThreatSolverTest {
+    /**
+     * Player 1 (X) wins by continuous fours in seven moves, 0-based
+     * (4,5), (1,5), (4,2), (6,6), (3,3), (2,4) and (5,1). The fourth is
+     * not on a line with the four before it, so a search that only
+     * follows the lines through the last four misses the win.
+     */
+    private static final String[] CHAIN = {
+            "...............",
+            "...............",
+            "...............",
+            ".....X.....O...",
+            "...XX..X.......",
+            ".....X.........",
+            ".....O.O.......",
+            "........O......",
+            "...O....XX.....",
+            "........OO.X...",
+            ".......O...X...",
+            "........X......",
+            "...............",
+            "...............",
+            "...............",
+    };
+
+    private static int[][] parse(String[] rows){
+        int[][] cells = new int[rows.length][rows[0].length()];
+        for (int i = 0; i < rows.length; i++){
+            for (int j = 0; j < rows[i].length(); j++){
+                cells[i][j] = ".XO".indexOf(rows[i].charAt(j));
+            }
+        }
+        return cells;
+    }
+
+    /** Plays the line out, checking that it ends in the attacker's five and nothing before */
+    private static void assertWins(int[][] cells, int[] line, int attacker){
+        Board board = new Board(cells);
+        int width = board.getWidth();
+        for (int n = 0; n < line.length; n++){
+            int x = line[n] / width + 1;
+            int y = line[n] % width + 1;
+            assertTrue(board.placeStone(x, y, n % 2 == 0 ? attacker : 3 - attacker));
+            assertEquals(n == line.length - 1, board.isWinningStone(x, y));
+        }
+    }
+
+    @Test
+    public void testDoubleFour(){
+        int[][] cells = new int[15][15];
+        for (int k = 4; k < 7; k++){
+            cells[7][k] = 1;
+            cells[k][7] = 1;
+        }
+        cells[7][3] = 2;
+        cells[3][7] = 2;
+        int[] line = new ThreatSolver().solve(new Board(cells), 1);
+        assertNotNull(line);
+        assertEquals(3, line.length);
+        assertEquals(7 * 15 + 7, line[0]);
+        assertWins(cells, line, 1);
+    }
+
+    @Test
+    public void testChainThroughUnrelatedFour(){
+        int[][] cells = parse(CHAIN);
+        Board board = new Board(cells);
+        long hash = board.getHash();
+        ThreatSolver solver = new ThreatSolver();
+        int[] line = solver.solve(board, 1);
+        assertNotNull(line);
+        assertEquals(hash, board.getHash());
+        assertEquals(13, line.length);
+        assertWins(cells, line, 1);
+        assertEquals(13, solver.search(board, 1));
+    }
+
+    @Test
+    public void testNoChainOnceBroken(){
+        int[][] cells = parse(CHAIN);
+        // Takes the point the final double four needs
+        cells[3][3] = 2;
+        ThreatSolver solver = new ThreatSolver();
+        assertNull(solver.solve(new Board(cells), 1));
+        assertEquals(-1, solver.search(new Board(cells), 1));
+    }
+
+    /** Two crossing open twos: a double three wins, though no four can be made yet */
+    private static int[][] crossingTwos(){
+        int[][] cells = new int[15][15];
+        cells[7][5] = 1;
+        cells[7][6] = 1;
+        cells[5][7] = 1;
+        cells[6][7] = 1;
+        cells[0][0] = 2;
+        cells[14][14] = 2;
+        return cells;
+    }
+
+    @Test
+    public void testWinByThrees(){
+        int[][] cells = crossingTwos();
+        assertNull(new ThreatSolver(ThreatSolver.DEFAULT_MAX_PLIES, ThreatSolver.DEFAULT_MAX_NODES, false)
+                .solve(new Board(cells), 1));
+        Board board = new Board(cells);
+        long hash = board.getHash();
+        int[] line = new ThreatSolver().solve(board, 1);
+        assertNotNull(line);
+        assertEquals(hash, board.getHash());
+        assertWins(cells, line, 1);
+    }
+
+    @Test
+    public void testThreesAreTooSlowAgainstAnOpenThree(){
+        int[][] cells = crossingTwos();
+        // The defender answers any three with an open four of its own
+        cells[0][0] = 0;
+        cells[14][14] = 0;
+        cells[12][2] = 2;
+        cells[12][3] = 2;
+        cells[12][4] = 2;
+        cells[0][14] = 1;
+        assertNull(new ThreatSolver().solve(new Board(cells), 1));
+    }
+
+    @Test
+    public void testDefenderHasNoChain(){
+        assertNull(new ThreatSolver().solve(new Board(parse(CHAIN)), 2));
+    }
+}
@@ -0,0 +1,65 @@
+package omok;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TournamentResultTest {
+    @Test
+    public void testEloDifference(){
+        assertEquals(0, new TournamentResult(0, 0, 0).getEloDifference(), 1e-9);
+        assertEquals(0, new TournamentResult(50, 0, 50).getEloDifference(), 1e-9);
+        assertEquals(0, new TournamentResult(0, 30, 0).getEloDifference(), 1e-9);
+        // A score of 3/4 is the odds 3:1, 400 * log10(3) Elo
+        assertEquals(190.85, new TournamentResult(75, 0, 25).getEloDifference(), 0.01);
+        assertEquals(-190.85, new TournamentResult(25, 0, 75).getEloDifference(), 0.01);
+        assertEquals(Double.POSITIVE_INFINITY, new TournamentResult(10, 0, 0).getEloDifference(), 0);
+        assertEquals(Double.NEGATIVE_INFINITY, new TournamentResult(0, 0, 10).getEloDifference(), 0);
+    }
+
+    @Test
+    public void testEloErrorShrinksWithGames(){
+        assertEquals(Double.POSITIVE_INFINITY, new TournamentResult(0, 0, 0).getEloError(), 0);
+        double few = new TournamentResult(60, 0, 40).getEloError();
+        double many = new TournamentResult(6000, 0, 4000).getEloError();
+        assertTrue(few > many);
+        // The error falls with the square root of the number of games
+        assertEquals(10, few / many, 0.5);
+    }
+
+    @Test
+    public void testLogLikelihoodRatio(){
+        assertEquals(0, new TournamentResult(0, 0, 0).getLogLikelihoodRatio(0, 10), 0);
+        assertEquals(0.5559, new TournamentResult(60, 0, 40).getLogLikelihoodRatio(0, 10), 1e-4);
+        // The same score over ten times the games is about ten times the evidence
+        assertEquals(5.563, new TournamentResult(600, 0, 400).getLogLikelihoodRatio(0, 10), 1e-3);
+        assertEquals(-0.5173, new TournamentResult(400, 200, 400).getLogLikelihoodRatio(0, 10), 1e-4);
+        // Only draws: an even score is evidence against the candidate being stronger
+        assertEquals(-0.1739, new TournamentResult(0, 20, 0).getLogLikelihoodRatio(0, 10), 1e-4);
+    }
+
+    @Test
+    public void testOneSidedResultsMoveTheRatio(){
+        double ten = new TournamentResult(10, 0, 0).getLogLikelihoodRatio(0, 10);
+        double twenty = new TournamentResult(20, 0, 0).getLogLikelihoodRatio(0, 10);
+        assertTrue(ten > 0 && twenty > ten);
+        assertEquals(1.560, ten, 1e-3);
+        assertTrue(new TournamentResult(0, 0, 10).getLogLikelihoodRatio(0, 10) < 0);
+    }
+
+    @Test
+    public void testSprtBounds(){
+        // log((1 - beta) / alpha) and log(beta / (1 - alpha)) are +/-2.944 at 5% error rates
+        assertEquals(TournamentResult.Verdict.CONTINUE, new TournamentResult(0, 0, 0).sprt(0, 10, 0.05, 0.05));
+        // LLR 2.78, just inside the upper bound
+        assertEquals(TournamentResult.Verdict.CONTINUE, new TournamentResult(300, 0, 200).sprt(0, 10, 0.05, 0.05));
+        assertEquals(TournamentResult.Verdict.ACCEPT, new TournamentResult(600, 0, 400).sprt(0, 10, 0.05, 0.05));
+        // LLR -3.21, past the lower bound
+        assertEquals(TournamentResult.Verdict.REJECT, new TournamentResult(200, 0, 300).sprt(0, 10, 0.05, 0.05));
+        // A clean sweep either way decides the test
+        assertEquals(TournamentResult.Verdict.ACCEPT, new TournamentResult(100, 0, 0).sprt(0, 10, 0.05, 0.05));
+        assertEquals(TournamentResult.Verdict.REJECT, new TournamentResult(0, 0, 100).sprt(0, 10, 0.05, 0.05));
+        assertEquals(TournamentResult.Verdict.ACCEPT, new TournamentResult(20, 0, 0).sprt(0, 10, 0.05, 0.05));
+        // Looser error rates narrow the bounds to +/-2.20
+        assertEquals(TournamentResult.Verdict.ACCEPT, new TournamentResult(300, 0, 200).sprt(0, 10, 0.1, 0.1));
+    }
+}
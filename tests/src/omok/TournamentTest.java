@@ -0,0 +1,111 @@
+package omok;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.Assert.*;
+
+public class TournamentTest {
+    @Test
+    public void testFailedGamesAreCounted(){
+        IllegalStateException broken = new IllegalStateException("broken player");
+        Tournament tournament = new Tournament(
+                playerNum -> new FirstEmptyPlayer(playerNum),
+                playerNum -> { throw broken; },
+                9, 2, 2);
+        TournamentResult result = tournament.run(6, 1);
+        assertEquals(0, result.getGames());
+        assertEquals(6, tournament.getFailedGames());
+        assertSame(broken, tournament.getFirstFailure());
+    }
+
+    @Test
+    public void testSilentPlayerForfeits(){
+        UserInterfaceable silent = new SilentUserInterface();
+        Tournament tournament = new Tournament(
+                playerNum -> new LocalPlayer(silent, "Silent " + playerNum, playerNum),
+                playerNum -> new FirstEmptyPlayer(playerNum),
+                9, 2, 2);
+        TournamentResult result = tournament.run(6, 1);
+        assertEquals(0, tournament.getFailedGames());
+        assertNull(tournament.getFirstFailure());
+        assertEquals(0, result.getWins());
+        assertEquals(0, result.getDraws());
+        assertTrue(result.getLosses() > 0);
+    }
+
+    @Test
+    public void testOddOpeningLeavesPlayerTwoToMove(){
+        AtomicBoolean outOfTurn = new AtomicBoolean();
+        IntFunction<Playable> player = playerNum -> new FirstEmptyPlayer(playerNum){
+            @Override
+            public int[] getStonePlacement(int[][] board){
+                int stones = 0;
+                for (int[] row : board){
+                    for (int cell : row){
+                        if (cell != 0){
+                            stones++;
+                        }
+                    }
+                }
+                if (stones % 2 != getPlayerNum() - 1){
+                    outOfTurn.set(true);
+                }
+                return super.getStonePlacement(board);
+            }
+        };
+        Tournament tournament = new Tournament(player, player, 9, 3, 2);
+        TournamentResult result = tournament.run(6, 1);
+        assertEquals(6, result.getGames());
+        assertFalse(outOfTurn.get());
+    }
+
+    @Test
+    public void testComputerPlayersAreShutDown(){
+        AtomicInteger shutdowns = new AtomicInteger();
+        UserInterfaceable silent = new SilentUserInterface();
+        Tournament tournament = new Tournament(
+                playerNum -> new ComputerPlayer(playerNum, silent, new SearchEngine(10, 1)){
+                    @Override
+                    public void shutdown(){
+                        shutdowns.incrementAndGet();
+                        super.shutdown();
+                    }
+                },
+                playerNum -> new FirstEmptyPlayer(playerNum),
+                7, 2, 1);
+        TournamentResult result = tournament.run(2, 1);
+        assertEquals(2, result.getGames() + tournament.getFailedGames());
+        assertEquals(2, shutdowns.get());
+    }
+
+    /** Plays the first empty cell, row by row */
+    private static class FirstEmptyPlayer implements Playable {
+        private final int playerNum;
+
+        FirstEmptyPlayer(int playerNum){
+            this.playerNum = playerNum;
+        }
+        @Override
+        public int getPlayerNum(){
+            return playerNum;
+        }
+        @Override
+        public String getPlayerName(){
+            return "First empty " + playerNum;
+        }
+        @Override
+        public int[] getStonePlacement(int[][] board){
+            for (int i = 0; i < board.length; i++){
+                for (int j = 0; j < board[i].length; j++){
+                    if (board[i][j] == 0){
+                        return new int[] {i + 1, j + 1};
+                    }
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package omok;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TranspositionTableTest {
+    @Test
+    public void testPackRoundTrip(){
+        long entry = TranspositionTable.pack(224, -12345, 17, TranspositionTable.LOWER);
+        assertEquals(224, TranspositionTable.moveOf(entry));
+        assertEquals(-12345, TranspositionTable.scoreOf(entry));
+        assertEquals(17, TranspositionTable.depthOf(entry));
+        assertEquals(TranspositionTable.LOWER, TranspositionTable.flagOf(entry));
+
+        entry = TranspositionTable.pack(-1, SearchEngine.WIN_SCORE, 255, TranspositionTable.UPPER);
+        assertEquals(-1, TranspositionTable.moveOf(entry));
+        assertEquals(SearchEngine.WIN_SCORE, TranspositionTable.scoreOf(entry));
+        assertEquals(255, TranspositionTable.depthOf(entry));
+        assertEquals(TranspositionTable.UPPER, TranspositionTable.flagOf(entry));
+        assertNotEquals(0, TranspositionTable.pack(0, 0, 0, TranspositionTable.EXACT));
+    }
+
+    @Test
+    public void testStoreAndProbe(){
+        TranspositionTable table = new TranspositionTable(1);
+        assertEquals(0, table.probe(42));
+        table.store(42, 7, 300, 5, TranspositionTable.EXACT);
+        long entry = table.probe(42);
+        assertEquals(7, TranspositionTable.moveOf(entry));
+        assertEquals(300, TranspositionTable.scoreOf(entry));
+        assertEquals(5, TranspositionTable.depthOf(entry));
+        assertEquals(0, table.probe(43));
+        table.clear();
+        assertEquals(0, table.probe(42));
+    }
+
+    @Test
+    public void testBucketKeepsDeepestAndLatest(){
+        TranspositionTable table = new TranspositionTable(1);
+        long deep = 8;
+        long shallow = deep + table.capacity();
+        long latest = deep + 2L * table.capacity();
+        table.store(deep, 1, 10, 9, TranspositionTable.EXACT);
+        table.store(shallow, 2, 20, 1, TranspositionTable.EXACT);
+        table.store(latest, 3, 30, 2, TranspositionTable.EXACT);
+        // All three share a bucket: the deep entry stays, the latest replaces the shallow one
+        assertEquals(1, TranspositionTable.moveOf(table.probe(deep)));
+        assertEquals(0, table.probe(shallow));
+        assertEquals(3, TranspositionTable.moveOf(table.probe(latest)));
+
+        // A deeper result takes the first slot and moves the old one to the second
+        table.store(shallow, 4, 40, 12, TranspositionTable.EXACT);
+        assertEquals(4, TranspositionTable.moveOf(table.probe(shallow)));
+        assertEquals(1, TranspositionTable.moveOf(table.probe(deep)));
+        assertEquals(0, table.probe(latest));
+    }
+
+    @Test
+    public void testWinScoresAreStoredRelativeToNode(){
+        int win = SearchEngine.WIN_SCORE;
+        // A win 5 plies from the root found at ply 2 is a win 3 plies from the node
+        assertEquals(win - 3, SearchEngine.toTable(win - 5, 2));
+        assertEquals(-win + 3, SearchEngine.toTable(-win + 5, 2));
+        // Reached again at ply 4 the same win is 7 plies from the root
+        assertEquals(win - 7, SearchEngine.fromTable(SearchEngine.toTable(win - 5, 2), 4));
+        assertEquals(-win + 7, SearchEngine.fromTable(SearchEngine.toTable(-win + 5, 2), 4));
+        for (int ply = 0; ply < 10; ply++){
+            assertEquals(win - 6, SearchEngine.fromTable(SearchEngine.toTable(win - 6, ply), ply));
+            assertEquals(-win + 6, SearchEngine.fromTable(SearchEngine.toTable(-win + 6, ply), ply));
+        }
+        // Ordinary scores are stored as they are
+        assertEquals(1234, SearchEngine.toTable(1234, 6));
+        assertEquals(-1234, SearchEngine.fromTable(-1234, 6));
+    }
+}